@@ -0,0 +1,72 @@
+package life.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import life.simulator.HeadlessView;
+import life.simulator.Simulator;
+import life.simulator.grid.GridBatch;
+
+/**
+ * One generation of many small fields per operation: a GridBatch holding
+ * all of them, against a Simulator for each.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+    @Param({ "80x100" })
+    public String size;
+
+    @Param({ "16", "64" })
+    public int fields;
+
+    private GridBatch batch;
+    private Simulator[] simulators;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        int depth = Integer.parseInt(dimensions[0]);
+        int width = Integer.parseInt(dimensions[1]);
+        long[] seeds = new long[fields];
+        simulators = new Simulator[fields];
+        for (int field = 0; field < fields; field++) {
+            seeds[field] = SimulationState.SEED + field;
+            simulators[field] = new Simulator(depth, width, seeds[field], new HeadlessView());
+        }
+        batch = new GridBatch(depth, width, seeds);
+        batch.populate();
+    }
+
+    @Benchmark
+    public void batchStep() {
+        batch.step();
+    }
+
+    @Benchmark
+    public void simulatorsStep() {
+        for (Simulator simulator : simulators) {
+            simulator.simOneGeneration();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package life.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import life.model.Cell;
+import life.model.CellType;
+
+/**
+ * The act() method of one cell type, one cell per operation. The cells
+ * act repeatedly on an unchanging generation, which exercises the same
+ * code paths as a real generation's act phase.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellActBenchmark {
+    @Param({ "MYCOPLASMA", "ESCHERICHIA", "PHOTOBACTERIUM", "PSEUDOMONAS", "WOLBACHIA" })
+    public CellType cellType;
+
+    private Cell[] cells;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(SimulationState state) {
+        state.field.setGeneration(1);
+        cells = state.cells.stream().filter(cell -> cell.getType() == cellType).toArray(Cell[]::new);
+    }
+
+    @Benchmark
+    public void act() {
+        cells[next].act();
+        next = next + 1 == cells.length ? 0 : next + 1;
+    }
+}
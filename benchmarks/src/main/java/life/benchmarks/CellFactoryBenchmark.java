@@ -0,0 +1,45 @@
+package life.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import life.model.Cell;
+import life.model.CellFactory;
+
+/**
+ * CellFactory.createCell, one cell per operation.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellFactoryBenchmark {
+    private CellFactory cellFactory;
+
+    @Setup(Level.Trial)
+    public void setUp(SimulationState state) {
+        cellFactory = state.newCellFactory();
+    }
+
+    @Benchmark
+    public Cell createCell(SimulationState state) {
+        return cellFactory.createCell(state.field, state.nextLocation());
+    }
+}
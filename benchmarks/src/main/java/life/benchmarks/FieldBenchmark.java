@@ -0,0 +1,61 @@
+package life.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import life.model.Cell;
+import life.simulator.Location;
+import life.simulator.Neighbourhood;
+
+/**
+ * Neighbour lookups on Field, one location per operation.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark {
+    private final Neighbourhood neighbourhood = new Neighbourhood();
+
+    @Benchmark
+    public List<Location> adjacentLocations(SimulationState state) {
+        return state.field.adjacentLocations(state.nextLocation());
+    }
+
+    @Benchmark
+    public List<Cell> getLivingNeighbours(SimulationState state) {
+        return state.field.getLivingNeighbours(state.nextLocation());
+    }
+
+    @Benchmark
+    public Neighbourhood getLivingNeighboursBuffer(SimulationState state) {
+        return state.field.getLivingNeighbours(state.nextLocation(), neighbourhood);
+    }
+
+    @Benchmark
+    public Cell getMostCommonNeighbour(SimulationState state) {
+        return state.field.getMostCommonNeighbour(state.field.getLivingNeighbours(state.nextLocation()));
+    }
+
+    @Benchmark
+    public Cell getMostCommonNeighbourBuffer(SimulationState state) {
+        return state.field.getMostCommonNeighbour(
+                state.field.getLivingNeighbours(state.nextLocation(), neighbourhood));
+    }
+}
@@ -0,0 +1,96 @@
+package life.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import life.model.Cell;
+import life.simulator.grid.GridField;
+
+/**
+ * Whole generations, one generation per operation, for the Cell object
+ * model and for GridField stepped sequentially, with bitboard neighbour
+ * counting, off the heap and in parallel.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+    private int generation;
+    private GridField grid;
+    private GridField synchronousGrid;
+    private GridField bitboardGrid;
+    private GridField offHeapGrid;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp(SimulationState state) {
+        grid = new GridField(state.depth, state.width, SimulationState.SEED);
+        grid.populate(state.newCellFactory());
+        synchronousGrid = new GridField(state.depth, state.width, SimulationState.SEED, true);
+        synchronousGrid.populate(state.newCellFactory());
+        bitboardGrid = new GridField(state.depth, state.width, SimulationState.SEED, false,
+                GridField.NeighbourCounting.BITBOARD);
+        bitboardGrid.populate(state.newCellFactory());
+        offHeapGrid = new GridField(state.depth, state.width, SimulationState.SEED, false,
+                GridField.NeighbourCounting.BITBOARD, GridField.Storage.OFF_HEAP);
+        offHeapGrid.populate(state.newCellFactory());
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * The work of Simulator.simOneGeneration on the Cell object model,
+     * without a view.
+     */
+    @Benchmark
+    public void simOneGeneration(SimulationState state) {
+        generation++;
+        state.field.setGeneration(generation);
+        state.cells.forEach(Cell::act);
+        state.cells.forEach(Cell::updateState);
+    }
+
+    @Benchmark
+    public void gridStep() {
+        grid.step();
+    }
+
+    @Benchmark
+    public void gridStepBitboard() {
+        bitboardGrid.step();
+    }
+
+    @Benchmark
+    public void gridStepOffHeap() {
+        offHeapGrid.step();
+    }
+
+    @Benchmark
+    public void gridStepParallel() {
+        synchronousGrid.stepParallel(pool);
+    }
+}
@@ -0,0 +1,83 @@
+package life.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.simulator.Field;
+import life.simulator.Location;
+
+/**
+ * A populated field shared by the benchmarks, built the same way as
+ * Simulator.populate at a chosen size and density of living cells.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+public class SimulationState {
+    // Seed for the factory deciding the cells, so every fork sees the same field.
+    static final long SEED = 1111;
+
+    @Param({ "80x100", "400x500", "1000x1000" })
+    public String size;
+
+    @Param({ "0.15", "0.5" })
+    public double density;
+
+    public int depth;
+    public int width;
+    public Field field;
+    public List<Cell> cells;
+    public Location[] locations;
+
+    // Position of the next location handed out by nextLocation().
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        depth = Integer.parseInt(dimensions[0]);
+        width = Integer.parseInt(dimensions[1]);
+        field = new Field(depth, width, SEED);
+        cells = new ArrayList<>(depth * width);
+        locations = new Location[depth * width];
+        CellFactory cellFactory = newCellFactory();
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                Location location = new Location(row, col);
+                Cell cell = cellFactory.createCell(field, location);
+                if (!cellFactory.isAlive()) {
+                    cell.setDead();
+                }
+                cells.add(cell);
+                locations[row * width + col] = location;
+            }
+        }
+    }
+
+    /**
+     * Create a factory producing cells at this state's density.
+     */
+    public CellFactory newCellFactory() {
+        return new CellFactory(new Random(SEED), density);
+    }
+
+    /**
+     * Return the next location of the field, cycling through all of them.
+     */
+    public Location nextLocation() {
+        Location location = locations[next];
+        next = next + 1 == locations.length ? 0 : next + 1;
+        return location;
+    }
+}
@@ -0,0 +1,74 @@
+package life.benchmarks;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import life.model.Cell;
+import life.utils.Palette;
+import life.view.FieldRaster;
+import life.view.FrameBuffer;
+
+/**
+ * The work SimulatorView does for one frame, without a window: once the
+ * status the simulation publishes each generation through the view's
+ * FrameBuffer, and once that together with drawing the frame into the view's
+ * FieldRaster, on a field that keeps changing between frames.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StatusBenchmark {
+    // The same scale and empty colour as SimulatorView.
+    private static final int SCALE = 6;
+    private static final int EMPTY_COLOR = Palette.of(Color.white);
+
+    private FrameBuffer frames;
+    private FieldRaster raster;
+    private int generation;
+
+    @Setup(Level.Trial)
+    public void setUp(SimulationState state) {
+        frames = new FrameBuffer(state.depth, state.width, EMPTY_COLOR);
+        raster = new FieldRaster(state.depth, state.width);
+        raster.setScale(SCALE, SCALE, EMPTY_COLOR);
+    }
+
+    @Benchmark
+    public FrameBuffer showStatus(SimulationState state) {
+        frames.publish(++generation, state.field);
+        return frames;
+    }
+
+    @Benchmark
+    public FrameBuffer.Frame showAndDrawStatus(SimulationState state) {
+        // Flip one cell per frame so that there is always something to redraw.
+        Cell flipped = state.field.getObjectAt(state.nextLocation());
+        flipped.setNextState(!flipped.isAlive());
+        flipped.updateState();
+        frames.publish(++generation, state.field);
+        FrameBuffer.Frame frame = frames.takeLatest();
+        raster.setCells(frame.getColours());
+        raster.render(area -> {
+        });
+        return frame;
+    }
+}
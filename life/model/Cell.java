@@ -1,12 +1,12 @@
 package life.model;
 
 import java.awt.Color;
-import java.util.List;
 import java.util.Random;
 
 import life.simulator.Field;
 import life.simulator.Location;
-import life.utils.Randomizer;
+import life.simulator.Neighbourhood;
+import life.utils.Palette;
 
 /**
  * A class representing the shared characteristics of all forms of life
@@ -22,7 +22,8 @@ public abstract class Cell {
   private boolean nextAlive;
   private Field field;
   private Location location;
-  private Color color;
+  // The colour packed as ARGB, or Palette.NONE.
+  private int color;
   private boolean hasPlague;
   private int energyLeft;
   private final int maxEnergy;
@@ -31,16 +32,20 @@ public abstract class Cell {
   public static final double CATCH_PLAGUE_PROBABILITY = 0.2;
   public static final int MAX_ENERGY_AFTER_PLAGUE = 3;
   public static final int MAX_RGB = 255;
+  public static final int PLAGUE_COLOR = Palette.of(Color.BLACK);
+
+  // Reusable neighbour buffer, one per thread, so act() does not allocate.
+  private static final ThreadLocal<Neighbourhood> NEIGHBOURHOOD = ThreadLocal.withInitial(Neighbourhood::new);
 
   /**
    * Constructs a Cell object
    * 
    * @param field     the Field the Cell belongs to
    * @param location  the Location of the Cell
-   * @param color     the color of the Cell
+   * @param color     the packed color of the Cell, or Palette.NONE
    * @param maxEnergy the maximum energy of the Cell
    */
-  public Cell(Field field, Location location, Color color, int maxEnergy) {
+  public Cell(Field field, Location location, int color, int maxEnergy) {
     this.alive = true;
     this.nextAlive = false;
     this.energyLeft = maxEnergy;
@@ -56,6 +61,13 @@ public abstract class Cell {
    */
   public abstract void act();
 
+  /**
+   * Returns the type of this cell.
+   * 
+   * @return the cell type
+   */
+  public abstract CellType getType();
+
   /**
    * Check whether the cell is alive or not.
    * 
@@ -69,7 +81,12 @@ public abstract class Cell {
    * Indicate that the cell is no longer alive.
    */
   public void setDead() {
-    alive = false;
+    if (alive) {
+      field.getStats().aliveChanged(getType(), false);
+      long before = stateKey();
+      alive = false;
+      field.stateChanged(before, stateKey());
+    }
   }
 
   /**
@@ -91,27 +108,33 @@ public abstract class Cell {
   }
 
   /**
-   * Changes the state of the cell
+   * Changes the state of the cell, reporting the change to the field's
+   * statistics and state hash
    */
   public void updateState() {
-    alive = nextAlive;
+    if (alive != nextAlive) {
+      field.getStats().aliveChanged(getType(), nextAlive);
+      long before = stateKey();
+      alive = nextAlive;
+      field.stateChanged(before, stateKey());
+    }
   }
 
   /**
    * Sets the color of the Cell
    * 
-   * @param col the Color
+   * @param col the packed color, or Palette.NONE
    */
-  public void setColor(Color col) {
+  public void setColor(int col) {
     color = col;
   }
 
   /**
    * Returns the color of the Cell
    * 
-   * @return the Color
+   * @return the packed color, or Palette.NONE if the cell has none
    */
-  public Color getColor() {
+  public int getColor() {
     return color;
   }
 
@@ -134,6 +157,17 @@ public abstract class Cell {
     field.place(this, location);
   }
 
+  /**
+   * Return the living neighbours of this cell. The returned buffer is shared
+   * by all cells acting on the current thread and is only valid until the
+   * next call.
+   * 
+   * @return The living neighbours of this cell.
+   */
+  protected Neighbourhood getLivingNeighbours() {
+    return field.getLivingNeighbours(location, NEIGHBOURHOOD.get());
+  }
+
   /**
    * Return the cell's field.
    * 
@@ -167,7 +201,14 @@ public abstract class Cell {
    * @param energyLeft the new energy left for this cell
    */
   public void setEnergyLeft(int energyLeft) {
+    if (Math.max(energyLeft, 0) == Math.max(this.energyLeft, 0)) {
+      // Same energy bucket, so the state hash is unchanged.
+      this.energyLeft = energyLeft;
+      return;
+    }
+    long before = stateKey();
     this.energyLeft = energyLeft;
+    field.stateChanged(before, stateKey());
   }
 
   /**
@@ -185,32 +226,43 @@ public abstract class Cell {
    * @param hasPlague true if this cell has the plague
    */
   public void setPlagued(boolean hasPlague) {
-    this.hasPlague = hasPlague;
+    if (this.hasPlague != hasPlague) {
+      field.getStats().plagueChanged(getType(), hasPlague);
+      long before = stateKey();
+      this.hasPlague = hasPlague;
+      field.stateChanged(before, stateKey());
+    }
+  }
+
+  /**
+   * Returns the Zobrist key of the cell's current state at its location.
+   */
+  private long stateKey() {
+    return field.getStateKey(location, this);
   }
 
   /**
    * Checks whether any neighbouring cells are infected with the plague.
    * 
-   * @param neighbours a list of neighbouring cells to check
+   * @param neighbours the living neighbours to check
    * @return true if any neighbouring cell is infected with the plague
    */
-  public boolean isNeighbourInfected(List<Cell> neighbours) {
-    for (Cell neighbour : neighbours) {
-      if (neighbour.hasPlague()) {
-        return true;
-      }
-    }
-    return false;
+  public boolean isNeighbourInfected(Neighbourhood neighbours) {
+    return neighbours.isAnyInfected();
   }
 
   /**
    * Apply the plague to the cell if the random number is below a certain
    * threshold.
    * 
-   * @param neighbours a list of neighbouring cells to check for the plague
+   * @param neighbours the living neighbours to check for the plague
    */
-  public void catchAndApplyPlague(List<Cell> neighbours) {
-    Random random = Randomizer.getRandom();
+  public void catchAndApplyPlague(Neighbourhood neighbours) {
+    Random random = field.getRandom(location, Field.PLAGUE_STREAM);
+    if (canCatchPlague() && isNeighbourInfected(neighbours)) {
+      // Whether the plague is caught is down to the draw.
+      field.recordChance();
+    }
     if (canCatchPlague() && random.nextDouble() < CATCH_PLAGUE_PROBABILITY) {
       setPlagued(isNeighbourInfected(neighbours));
     }
@@ -222,7 +274,7 @@ public abstract class Cell {
    */
   private void applyEffectsOfPlague() {
     if (hasPlague()) {
-      setColor(Color.BLACK);
+      setColor(PLAGUE_COLOR);
       if (getEnergyLeft() > MAX_ENERGY_AFTER_PLAGUE) {
         setEnergyLeft(MAX_ENERGY_AFTER_PLAGUE);
       }
@@ -244,10 +296,10 @@ public abstract class Cell {
    * 
    * @param nextState
    * @param energyLeft
-   * @param color
+   * @param color      the packed color, or Palette.NONE
    * @param infected
    */
-  public void setStateEnergyColorAndDisease(boolean nextState, int energyLeft, Color color, boolean infected) {
+  public void setStateEnergyColorAndDisease(boolean nextState, int energyLeft, int color, boolean infected) {
     setNextState(nextState);
     setEnergyLeft(energyLeft);
     setColor(color);
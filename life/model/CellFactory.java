@@ -1,7 +1,6 @@
 package life.model;
 
 import java.util.Random;
-import java.awt.Color;
 
 import life.model.cells.Escherichia;
 import life.model.cells.Mycoplasma;
@@ -24,6 +23,7 @@ public class CellFactory {
     private static final double ALIVE_PROB = 0.15;
 
     private Random rand;
+    private double aliveProb;
 
     /**
      * Constructor that takes a random number generator as input.
@@ -31,7 +31,19 @@ public class CellFactory {
      * @param rand
      */
     public CellFactory(Random rand) {
+        this(rand, ALIVE_PROB);
+    }
+
+    /**
+     * Constructor that takes a random number generator and the probability
+     * of a new cell starting alive.
+     * 
+     * @param rand
+     * @param aliveProb
+     */
+    public CellFactory(Random rand, double aliveProb) {
         this.rand = rand;
+        this.aliveProb = aliveProb;
     }
 
     /**
@@ -42,6 +54,28 @@ public class CellFactory {
      * @return cell type with given field and location
      */
     public Cell createCell(Field field, Location location) {
+        return createCellOfType(nextCellType(), field, location);
+    }
+
+    /**
+     * Create a cell of the given type at the specified location within the
+     * given field, as when a field is loaded from a snapshot.
+     * 
+     * @param cellType
+     * @param field
+     * @param location
+     * @return cell of the given type with given field and location
+     */
+    public static Cell createCell(CellType cellType, Field field, Location location) {
+        return createCellOfType(cellType, field, location);
+    }
+
+    /**
+     * Randomly select the type of the next cell to create.
+     * 
+     * @return the selected cell type
+     */
+    public CellType nextCellType() {
         double randNum = rand.nextDouble();
         CellType cellType = null;
 
@@ -57,7 +91,7 @@ public class CellFactory {
             cellType = CellType.WOLBACHIA;
         }
 
-        return createCellOfType(cellType, field, location);
+        return cellType;
     }
 
     /**
@@ -67,18 +101,18 @@ public class CellFactory {
      * @param location
      * @return cell with given field and location
      */
-    private Cell createCellOfType(CellType cellType, Field field, Location location) {
+    private static Cell createCellOfType(CellType cellType, Field field, Location location) {
         switch (cellType) {
             case MYCOPLASMA:
-                return new Mycoplasma(field, location, Color.ORANGE, 55);
+                return new Mycoplasma(field, location, cellType.getInitialColor(), cellType.getMaxEnergy());
             case ESCHERICHIA:
-                return new Escherichia(field, location, new Color(21, 76, 121), 65);
+                return new Escherichia(field, location, cellType.getInitialColor(), cellType.getMaxEnergy());
             case PHOTOBACTERIUM:
                 return new Photobacterium(field, location);
             case PSEUDOMONAS:
-                return new Pseudomonas(field, location, Color.RED, 75);
+                return new Pseudomonas(field, location, cellType.getInitialColor(), cellType.getMaxEnergy());
             case WOLBACHIA:
-                return new Wolbachia(field, location, Color.BLACK, 30);
+                return new Wolbachia(field, location, cellType.getInitialColor(), cellType.getMaxEnergy());
             default:
                 throw new IllegalArgumentException("Invalid type");
         }
@@ -88,6 +122,6 @@ public class CellFactory {
      * Returns boolean indicating whether cell is alive.
      */
     public boolean isAlive() {
-        return rand.nextDouble() < ALIVE_PROB;
+        return rand.nextDouble() < aliveProb;
     }
 }
\ No newline at end of file
@@ -1,16 +1,56 @@
 package life.model;
 
+import java.awt.Color;
+
+import life.utils.Palette;
+
 /**
  * This enum lists the different types of cells that can exist in this simulation.
+ * Each type records the packed colour and maximum energy a freshly created cell
+ * of that type starts with.
  * 
  * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
  * @version 2023.02.16 (2)
  */
 
-enum CellType {
-    MYCOPLASMA,
-    ESCHERICHIA,
-    PHOTOBACTERIUM,
-    PSEUDOMONAS,
-    WOLBACHIA
-}
\ No newline at end of file
+public enum CellType {
+    MYCOPLASMA(Palette.of(Color.ORANGE), 55),
+    ESCHERICHIA(Palette.rgb(21, 76, 121), 65),
+    PHOTOBACTERIUM(Palette.NONE, 0),
+    PSEUDOMONAS(Palette.of(Color.RED), 75),
+    WOLBACHIA(Palette.of(Color.BLACK), 30);
+
+    private final int initialColor;
+    private final int maxEnergy;
+
+    /**
+     * Constructs a cell type.
+     * 
+     * @param initialColor the packed colour of a new cell, or Palette.NONE if it is
+     *                     chosen randomly
+     * @param maxEnergy    the maximum energy of a cell of this type
+     */
+    CellType(int initialColor, int maxEnergy) {
+        this.initialColor = initialColor;
+        this.maxEnergy = maxEnergy;
+    }
+
+    /**
+     * Returns the colour a new cell of this type starts with.
+     * 
+     * @return the packed initial colour, or Palette.NONE if the colour is chosen
+     *         randomly
+     */
+    public int getInitialColor() {
+        return initialColor;
+    }
+
+    /**
+     * Returns the maximum energy of a cell of this type.
+     * 
+     * @return the maximum energy
+     */
+    public int getMaxEnergy() {
+        return maxEnergy;
+    }
+}
@@ -1,11 +1,11 @@
 package life.model.cells;
 
-import java.awt.Color;
-import java.util.List;
-
 import life.model.Cell;
+import life.model.CellType;
 import life.simulator.Field;
 import life.simulator.Location;
+import life.simulator.Neighbourhood;
+import life.utils.Palette;
 
 /**
  * This class represents a Escherichia cell in the simulation.
@@ -21,14 +21,14 @@ public class Escherichia extends Cell {
     public static final int MAX_NEIGHBOUR_TO_SURVIVE = 4;
     public static final int NEIGHBOUR_TO_REBIRTH = 3;
 
-    private static final Color DEFAULT_COLOR = new Color(21, 76, 121);
-    private static final int GEN_TO_CHANGE_SHADE = 5;
-    private static final int CHANGE_IN_RGB = 25;
+    public static final int DEFAULT_COLOR = CellType.ESCHERICHIA.getInitialColor();
+    public static final int GEN_TO_CHANGE_SHADE = 5;
+    public static final int CHANGE_IN_RGB = 25;
 
     /**
     * 
     */
-    public Escherichia(Field field, Location location, Color color, int maxEnergy) {
+    public Escherichia(Field field, Location location, int color, int maxEnergy) {
         super(field, location, color, maxEnergy);
     }
 
@@ -39,7 +39,7 @@ public class Escherichia extends Cell {
 
         setEnergyLeft(getEnergyLeft() - 1);
 
-        List<Cell> neighbours = getField().getLivingNeighbours(getLocation());
+        Neighbourhood neighbours = getLivingNeighbours();
         int numberOfLivingNeighbours = neighbours.size();
 
         if (numberOfLivingNeighbours < MIN_NEIGHBOUR_TO_SURVIVE || numberOfLivingNeighbours > MAX_NEIGHBOUR_TO_SURVIVE
@@ -63,25 +63,35 @@ public class Escherichia extends Cell {
      */
     private void setNextColor() {
         if (getEnergyLeft() % GEN_TO_CHANGE_SHADE == 0) {
-            Color colorToUse = (getColor() != null) ? getColor() : DEFAULT_COLOR;
+            int colorToUse = (getColor() != Palette.NONE) ? getColor() : DEFAULT_COLOR;
             setColor(calcNextColor(colorToUse));
         }
     }
 
     /**
-     * Calculate the next brighter shade of its current color.
+     * Calculate the next brighter shade of a packed color. Works on the packed
+     * value directly, so no color object is created.
      * 
-     * @param currentColor current color of the cell
+     * @param currentColor current packed color of the cell
      * @return the brighter shade of the current color
      */
-    private Color calcNextColor(Color currentColor) {
-        int red = currentColor.getRed();
-        int green = currentColor.getGreen();
-        int blue = currentColor.getBlue();
+    public static int calcNextColor(int currentColor) {
+        int red = Palette.red(currentColor);
+        int green = Palette.green(currentColor);
+        int blue = Palette.blue(currentColor);
         if (red < MAX_RGB - CHANGE_IN_RGB && green < MAX_RGB - CHANGE_IN_RGB && blue < MAX_RGB - CHANGE_IN_RGB) {
-            return new Color(red + CHANGE_IN_RGB, green + CHANGE_IN_RGB, blue + CHANGE_IN_RGB);
+            return Palette.rgb(red + CHANGE_IN_RGB, green + CHANGE_IN_RGB, blue + CHANGE_IN_RGB);
         }
         return currentColor;
     }
 
+    /**
+     * Returns the type of this cell.
+     * 
+     * @return CellType.ESCHERICHIA
+     */
+    public CellType getType() {
+        return CellType.ESCHERICHIA;
+    }
+
 }
\ No newline at end of file
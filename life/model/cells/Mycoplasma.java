@@ -1,11 +1,10 @@
 package life.model.cells;
 
-import java.awt.Color;
-import java.util.List;
-
 import life.model.Cell;
+import life.model.CellType;
 import life.simulator.Field;
 import life.simulator.Location;
+import life.simulator.Neighbourhood;
 
 /**
  * This class represents a Mycoplasma cell in the simulation.
@@ -23,7 +22,7 @@ public class Mycoplasma extends Cell {
   public static final int NEIGHBOUR_TO_REBIRTH = 3;
   // Constant for the minimum number of neighboring Photobacterium cells to reset
   // energy
-  private static final int MIN_NUM_PHOTOS = 2;
+  public static final int MIN_NUM_PHOTOS = 2;
 
   /**
    * Constructor for the Mycoplasma cell.
@@ -33,7 +32,7 @@ public class Mycoplasma extends Cell {
    * @param col       The color of the cell.
    * @param maxEnergy The maximum energy level of the cell.
    */
-  public Mycoplasma(Field field, Location location, Color col, int maxEnergy) {
+  public Mycoplasma(Field field, Location location, int col, int maxEnergy) {
     super(field, location, col, maxEnergy);
   }
 
@@ -42,7 +41,7 @@ public class Mycoplasma extends Cell {
    * based on its living neighbors and its energy level
    */
   public void act() {
-    List<Cell> neighbours = getField().getLivingNeighbours(getLocation());
+    Neighbourhood neighbours = getLivingNeighbours();
     int numberOfLivingNeighbours = neighbours.size();
 
     // Check if the cell should reset its energy level based on the presence of
@@ -69,17 +68,20 @@ public class Mycoplasma extends Cell {
   /**
    * Resets the cell's energy level if it has enough neighboring Photobacterium.
    * 
-   * @param neighbours A list of the cell's neighbors.
+   * @param neighbours The cell's living neighbors.
    */
-  public void resetEnergyIfNeighboringPhotos(List<Cell> neighbours) {
-    int photoCount = 0;
-    for (Cell neighbour : neighbours) {
-      if (neighbour instanceof Photobacterium) {
-        photoCount++;
-      }
-    }
-    if (photoCount >= MIN_NUM_PHOTOS) {
+  public void resetEnergyIfNeighboringPhotos(Neighbourhood neighbours) {
+    if (neighbours.count(CellType.PHOTOBACTERIUM) >= MIN_NUM_PHOTOS) {
       setEnergyLeft(getMaxEnergy());
     }
   }
+
+  /**
+   * Returns the type of this cell.
+   * 
+   * @return CellType.MYCOPLASMA
+   */
+  public CellType getType() {
+    return CellType.MYCOPLASMA;
+  }
 }
@@ -1,13 +1,13 @@
 package life.model.cells;
 
-import java.awt.Color;
-import java.util.List;
 import java.util.Random;
 
-import life.utils.Randomizer;
 import life.model.Cell;
+import life.model.CellType;
 import life.simulator.Field;
 import life.simulator.Location;
+import life.simulator.Neighbourhood;
+import life.utils.Palette;
 
 /**
  * This class represents a Photobacterium cell in the simulation.
@@ -33,9 +33,8 @@ public class Photobacterium extends Cell {
      * @param location The location of this cell in the field.
      */
     public Photobacterium(Field field, Location location) {
-        super(field, location, null, 0);
-        Random rand = Randomizer.getRandom();
-        setColor(new Color(rand.nextInt(MAX_RGB), rand.nextInt(MAX_RGB), rand.nextInt(MAX_RGB)));
+        super(field, location, Palette.NONE, 0);
+        setColor(randomColor(field.getRandom(location, Field.COLOUR_STREAM)));
     }
 
     /**
@@ -44,7 +43,7 @@ public class Photobacterium extends Cell {
      */
     public void act() {
         // Get a list of this cell's living neighbors.
-        List<Cell> neighbours = getField().getLivingNeighbours(getLocation());
+        Neighbourhood neighbours = getLivingNeighbours();
         int numberOfLivingNeighbours = neighbours.size();
         // If there are no living neighbors, this cell will die.
         if (numberOfLivingNeighbours == 0) {
@@ -53,22 +52,26 @@ public class Photobacterium extends Cell {
             return;
         }
         // Determine the type of neighbor that appears most often.
-        String mostCommonNeighbour = getField().getMostCommonNeighbour(neighbours).getClass().getSimpleName();
+        CellType mostCommonNeighbour = getField().getMostCommonNeighbour(neighbours).getType();
+        if (neighbours.isMostCommonTied()) {
+            // The shuffled order of the neighbours decided which rules apply.
+            getField().recordChance();
+        }
         // Act differently depending on the type of most common neighbor.
         switch (mostCommonNeighbour) {
-            case "Photobacterium":
+            case PHOTOBACTERIUM:
                 rulesBasedOnNeighbours(MIN_NEIGHBOUR_TO_SURVIVE, MAX_NEIGHBOUR_TO_SURVIVE,
                         NEIGHBOUR_TO_REBIRTH, numberOfLivingNeighbours);
                 break;
-            case "Mycoplasma":
+            case MYCOPLASMA:
                 rulesBasedOnNeighbours(Mycoplasma.MIN_NEIGHBOUR_TO_SURVIVE, Mycoplasma.MAX_NEIGHBOUR_TO_SURVIVE,
                         Mycoplasma.NEIGHBOUR_TO_REBIRTH, numberOfLivingNeighbours);
                 break;
-            case "Pseudomonas":
+            case PSEUDOMONAS:
                 rulesBasedOnNeighbours(Pseudomonas.MIN_NEIGHBOUR_TO_SURVIVE, Pseudomonas.MAX_NEIGHBOUR_TO_SURVIVE,
                         Pseudomonas.NEIGHBOUR_TO_REBIRTH, numberOfLivingNeighbours);
                 break;
-            case "Escherichia":
+            case ESCHERICHIA:
                 rulesBasedOnNeighbours(Escherichia.MIN_NEIGHBOUR_TO_SURVIVE, Escherichia.MAX_NEIGHBOUR_TO_SURVIVE,
                         Escherichia.NEIGHBOUR_TO_REBIRTH, numberOfLivingNeighbours);
                 break;
@@ -115,33 +118,46 @@ public class Photobacterium extends Cell {
      */
     private void setColorIfAlive() {
         if (isAlive()) {
-            Random random = Randomizer.getRandom();
-            setColor(new Color(random.nextInt(MAX_RGB), random.nextInt(MAX_RGB), random.nextInt(MAX_RGB)));
+            setColor(randomColor(getField().getRandom(getLocation(), Field.COLOUR_STREAM)));
         }
     }
 
+    /**
+     * Draws a random opaque color, packed so that no color object is created.
+     * 
+     * @param random the generator to draw the red, green and blue components from
+     * @return the packed color
+     */
+    public static int randomColor(Random random) {
+        return Palette.rgb(random.nextInt(MAX_RGB), random.nextInt(MAX_RGB), random.nextInt(MAX_RGB));
+    }
+
     /**
      * Sets the flag to true if the cell has a neighboring mycoplasma cell,
      * otherwise false.
      * 
-     * @param neighbours a list of living neighboring cells
+     * @param neighbours the living neighboring cells
      */
-    private void avoidPlagueIfNeighbourMyco(List<Cell> neighbours) {
+    private void avoidPlagueIfNeighbourMyco(Neighbourhood neighbours) {
         neighbouringMyco = isNeighbouringMyco(neighbours);
     }
 
     /**
      * Determines whether the cell has a neighboring mycoplasma cell.
      * 
-     * @param neighbours a list of living neighboring cells
+     * @param neighbours the living neighboring cells
      */
-    public boolean isNeighbouringMyco(List<Cell> neighbours) {
-        for (Cell neighbour : neighbours) {
-            if (neighbour instanceof Mycoplasma) {
-                return true;
-            }
-        }
-        return false;
+    public boolean isNeighbouringMyco(Neighbourhood neighbours) {
+        return neighbours.count(CellType.MYCOPLASMA) > 0;
+    }
+
+    /**
+     * Returns the type of this cell.
+     * 
+     * @return CellType.PHOTOBACTERIUM
+     */
+    public CellType getType() {
+        return CellType.PHOTOBACTERIUM;
     }
 
 }
@@ -1,11 +1,11 @@
 package life.model.cells;
 
-import java.awt.Color;
-import java.util.List;
-
 import life.model.Cell;
+import life.model.CellType;
 import life.simulator.Field;
 import life.simulator.Location;
+import life.simulator.Neighbourhood;
+import life.utils.Palette;
 
 /**
  * This class represents a Pseudomonas cell in the simulation.
@@ -29,7 +29,7 @@ public class Pseudomonas extends Cell {
      * @param col       the color of the cell
      * @param maxEnergy the maximum energy that the cell can have
      */
-    public Pseudomonas(Field field, Location location, Color col, int maxEnergy) {
+    public Pseudomonas(Field field, Location location, int col, int maxEnergy) {
         super(field, location, col, maxEnergy);
     }
 
@@ -38,21 +38,21 @@ public class Pseudomonas extends Cell {
      */
     public void act() {
 
-        List<Cell> neighbours = getField().getLivingNeighbours(getLocation());
+        Neighbourhood neighbours = getLivingNeighbours();
         int numberOfLivingNeighbours = neighbours.size();
 
         setEnergyLeft(getEnergyLeft() - 1);
 
         if (getEnergyLeft() == 0 || numberOfLivingNeighbours == 0) {
-            setStateEnergyColorAndDisease(false, getMaxEnergy(), null, false);
+            setStateEnergyColorAndDisease(false, getMaxEnergy(), Palette.NONE, false);
             return;
         }
 
-        Color mostCommonColor = getField().getMostCommonNeighbourColour(getField().getMostCommonNeighbour(neighbours));
+        int mostCommonColor = getField().getMostCommonNeighbourColour(getField().getMostCommonNeighbour(neighbours));
         // If the cell has too many / little neighbors, or its energy level is zero, set its next state to dead
         if (numberOfLivingNeighbours < MIN_NEIGHBOUR_TO_SURVIVE
                 || numberOfLivingNeighbours > MAX_NEIGHBOUR_TO_SURVIVE) {
-            setStateEnergyColorAndDisease(false, getMaxEnergy(), null, false);
+            setStateEnergyColorAndDisease(false, getMaxEnergy(), Palette.NONE, false);
             return;
         }
 
@@ -63,4 +63,13 @@ public class Pseudomonas extends Cell {
         }
         catchAndApplyPlague(neighbours);
     }
+
+    /**
+     * Returns the type of this cell.
+     * 
+     * @return CellType.PSEUDOMONAS
+     */
+    public CellType getType() {
+        return CellType.PSEUDOMONAS;
+    }
 }
\ No newline at end of file
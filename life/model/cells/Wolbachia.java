@@ -1,14 +1,12 @@
 package life.model.cells;
 
-import java.awt.Color;
 import java.util.Random;
 
 import life.model.Cell;
+import life.model.CellType;
 import life.simulator.Field;
 import life.simulator.Location;
-import life.utils.Randomizer;
-
-import java.util.List;
+import life.simulator.Neighbourhood;
 
 /**
  * This class represents a Wolbachia cell in the simulation.
@@ -21,9 +19,9 @@ import java.util.List;
 
 public class Wolbachia extends Cell {
     // The probabilities for different events
-    private static final double PROB_TO_DIE = 0.8;
-    private static final double PROB_TO_COME_ALIVE = 0.1;
-    private static final double PROB_TO_HAVE_PLAGUE = 0.2;
+    public static final double PROB_TO_DIE = 0.8;
+    public static final double PROB_TO_COME_ALIVE = 0.1;
+    public static final double PROB_TO_HAVE_PLAGUE = 0.2;
 
     /**
      * Constructor for creating a Wolbachia cell.
@@ -33,7 +31,7 @@ public class Wolbachia extends Cell {
      * @param col       The color of the cell.
      * @param maxEnergy The maximum energy that the cell can have.
      */
-    public Wolbachia(Field field, Location location, Color col, int maxEnergy) {
+    public Wolbachia(Field field, Location location, int col, int maxEnergy) {
         super(field, location, col, maxEnergy);
     }
 
@@ -44,12 +42,16 @@ public class Wolbachia extends Cell {
 
         setEnergyLeft(getEnergyLeft() - 1);
 
-        Random rand = Randomizer.getRandom();
-        double randomVal = rand.nextDouble();
-
-        List<Cell> neighbours = getField().getLivingNeighbours(getLocation());
+        Neighbourhood neighbours = getLivingNeighbours();
         int numberOfLivingNeighbours = neighbours.size();
 
+        Random rand = getField().getRandom(getLocation(), Field.WOLBACHIA_STREAM);
+        double randomVal = rand.nextDouble();
+        if (numberOfLivingNeighbours != 0 && (!isAlive() || getEnergyLeft() != 0)) {
+            // Whether the cell lives or dies is down to the draw.
+            getField().recordChance();
+        }
+
         if (isAlive()) {
             // Check if the cell dies due to lack of energy or probability or no neighbors
             if (numberOfLivingNeighbours == 0 || randomVal < PROB_TO_DIE || getEnergyLeft() == 0) {
@@ -64,6 +66,12 @@ public class Wolbachia extends Cell {
         }
     }
 
-
-    
+    /**
+     * Returns the type of this cell.
+     * 
+     * @return CellType.WOLBACHIA
+     */
+    public CellType getType() {
+        return CellType.WOLBACHIA;
+    }
 }
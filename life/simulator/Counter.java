@@ -48,6 +48,22 @@ public class Counter {
         count++;
     }
 
+    /**
+     * Decrement the current count by one.
+     */
+    public void decrement() {
+        count--;
+    }
+
+    /**
+     * Add an amount to the current count.
+     * 
+     * @param amount The amount to add.
+     */
+    public void add(int amount) {
+        count += amount;
+    }
+
     /**
      * Reset the current count to zero.
      */
@@ -0,0 +1,107 @@
+package life.simulator;
+
+/**
+ * Remembers the state hashes of the most recent generations of a field, to
+ * find when the simulation has settled into a still life or an oscillation.
+ *
+ * A repeated hash only counts as a cycle if no random draw could have changed
+ * any of the generations since the earlier occurrence. Random draws depend on
+ * the generation, so a state that was reached by chance may well not be
+ * reached again; but a state reached by chance-free generations alone is
+ * followed by the same generations for ever.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class CycleDetector {
+    // The default number of recent generations remembered.
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // A ring of the most recent hashes and the generations they belong to.
+    private final long[] hashes;
+    private final int[] generations;
+    private int size;
+    private int next;
+
+    // The last generation a random draw could have changed.
+    private int lastChance;
+
+    // The period of the cycle found, or 0 if none has been found.
+    private int period;
+
+    /**
+     * Create a detector remembering the default number of generations.
+     */
+    public CycleDetector() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a detector remembering the given number of generations, which
+     * is the longest period it can find.
+     *
+     * @param capacity The number of recent generations remembered.
+     * @throws IllegalArgumentException If the capacity is less than one.
+     */
+    public CycleDetector(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least one.");
+        }
+        hashes = new long[capacity];
+        generations = new int[capacity];
+    }
+
+    /**
+     * Forget every generation, as when the field is populated again.
+     */
+    public void reset() {
+        size = 0;
+        next = 0;
+        lastChance = 0;
+        period = 0;
+    }
+
+    /**
+     * Record the state of the field after a generation, and look for an
+     * earlier generation with the same state.
+     *
+     * @param generation    The generation just simulated.
+     * @param hash          The state hash of the field after it.
+     * @param deterministic Whether no random draw could have changed it.
+     * @return The period of the cycle the field is in, or 0 if none has been
+     *         found.
+     */
+    public int record(int generation, long hash, boolean deterministic) {
+        if (!deterministic) {
+            lastChance = generation;
+        }
+        if (period == 0) {
+            // The latest earlier occurrence gives the shortest period.
+            int latest = -1;
+            for (int i = 0; i < size; i++) {
+                if (hashes[i] == hash && generations[i] >= lastChance) {
+                    latest = Math.max(latest, generations[i]);
+                }
+            }
+            if (latest >= 0) {
+                period = generation - latest;
+            }
+        }
+        hashes[next] = hash;
+        generations[next] = generation;
+        next = (next + 1) % hashes.length;
+        size = Math.min(size + 1, hashes.length);
+        return period;
+    }
+
+    /**
+     * Return the period of the cycle the field is in.
+     *
+     * @return The period in generations, 1 for a still life, or 0 if no
+     *         cycle has been found.
+     */
+    public int getPeriod() {
+        return period;
+    }
+}
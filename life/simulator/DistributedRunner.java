@@ -0,0 +1,386 @@
+package life.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.model.CellType;
+
+/**
+ * Runs a simulation split between several worker processes on this machine,
+ * for fields too large for one. The field is cut into strips of whole rows,
+ * one per StripWorker, and this coordinator starts the workers, populates
+ * their strips, gathers the population and state hash of every generation,
+ * and collects the strips into a snapshot. The workers exchange their edge
+ * rows with each other directly over sockets on the loopback address.
+ *
+ * The field is populated and simulated exactly as by a Simulator with the
+ * same seed, so the results are the same as those of a single process.
+ * Unlike a Simulator, the runner always simulates the generations asked for:
+ * the workers are at different generations at any moment, so it cannot stop
+ * them at the generation the field dies out or starts to repeat. It reports
+ * those generations instead.
+ *
+ * Usage: DistributedRunner [--workers n] [--save file] [rows] [columns]
+ * [generations] [seed]
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class DistributedRunner implements AutoCloseable {
+    // Defaults for arguments that are not given.
+    private static final int DEFAULT_NUM_WORKERS = 2;
+    private static final int DEFAULT_NUM_ROWS = 80;
+    private static final int DEFAULT_NUM_COLUMNS = 100;
+    private static final int DEFAULT_NUM_GENERATIONS = 1000;
+    private static final long DEFAULT_SEED = 1111;
+
+    // How long to wait for a worker to connect, in milliseconds.
+    private static final int CONNECT_TIMEOUT = 60_000;
+
+    private static final CellType[] TYPES = CellType.values();
+
+    private final int depth, width;
+    private final long seed;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Worker> workers = new ArrayList<>();
+
+    // The state of the whole field in the last generation gathered.
+    private int generation;
+    private final FieldStats stats = new FieldStats();
+    private long stateHash;
+    private final CycleDetector cycleDetector = new CycleDetector();
+    // The first generation without living cells, or -1 if there has been none.
+    private int extinctGeneration = -1;
+
+    /**
+     * Start the workers and populate the field at random, as a Simulator with
+     * the same seed would.
+     *
+     * @param depth      The depth of the field.
+     * @param width      The width of the field.
+     * @param seed       The seed of the simulation.
+     * @param numWorkers The number of worker processes.
+     * @throws IllegalArgumentException If there are more workers than rows.
+     * @throws IOException              If a worker cannot be started or
+     *                                  fails.
+     */
+    public DistributedRunner(int depth, int width, long seed, int numWorkers) throws IOException {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Dimensions must be greater than zero.");
+        }
+        if (numWorkers < 1 || numWorkers > depth) {
+            throw new IllegalArgumentException("Need between 1 and " + depth + " workers.");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        try {
+            startWorkers(numWorkers);
+            populate();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Start the worker processes, give each its strip and connect them in
+     * order.
+     */
+    private void startWorkers(int numWorkers) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        try (ServerSocket server = new ServerSocket(0, numWorkers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT);
+            for (int i = 0; i < numWorkers; i++) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        StripWorker.class.getName(), server.getInetAddress().getHostAddress(),
+                        String.valueOf(server.getLocalPort())).inheritIO().start());
+            }
+            for (int i = 0; i < numWorkers; i++) {
+                int firstRow = (int) ((long) i * depth / numWorkers);
+                int rows = (int) ((long) (i + 1) * depth / numWorkers) - firstRow;
+                workers.add(new Worker(server.accept(), firstRow, rows));
+            }
+        }
+        for (int i = 0; i < workers.size(); i++) {
+            Worker worker = workers.get(i);
+            worker.out.writeByte(StripWorker.SETUP);
+            worker.out.writeInt(depth);
+            worker.out.writeInt(width);
+            worker.out.writeLong(seed);
+            worker.out.writeInt(worker.firstRow);
+            worker.out.writeInt(worker.rows);
+            worker.out.writeInt(i > 0 ? workers.get(i - 1).port : -1);
+            worker.out.writeBoolean(i < workers.size() - 1);
+            worker.out.flush();
+        }
+    }
+
+    /**
+     * Create the cells row by row, in the order and with the random draws of
+     * Simulator.populate, and send each row to the worker that owns it. Only
+     * one row is held here at a time.
+     */
+    private void populate() throws IOException {
+        CellFactory cellFactory = new CellFactory(new Random(seed));
+        byte[] records = new byte[width * FieldSnapshot.RECORD_SIZE];
+        for (Worker worker : workers) {
+            worker.out.writeByte(StripWorker.INIT);
+            worker.out.writeInt(0);
+            for (int row = worker.firstRow; row < worker.firstRow + worker.rows; row++) {
+                Field rowField = new Field(depth, width, seed, row, 1);
+                ByteBuffer buffer = ByteBuffer.wrap(records);
+                for (int col = 0; col < width; col++) {
+                    Cell cell = cellFactory.createCell(rowField, new Location(row, col));
+                    if (!cellFactory.isAlive()) {
+                        cell.setDead();
+                    }
+                    FieldSnapshot.putRecord(buffer, cell);
+                }
+                worker.out.write(records);
+            }
+            worker.out.flush();
+        }
+        gather(0);
+        // As in Simulator, the history starts with generation 1.
+        cycleDetector.reset();
+    }
+
+    /**
+     * Simulate a number of generations.
+     *
+     * @param numGenerations The number of generations to simulate.
+     * @throws IOException If a worker fails.
+     */
+    public void simulate(int numGenerations) throws IOException {
+        for (Worker worker : workers) {
+            worker.out.writeByte(StripWorker.RUN);
+            worker.out.writeInt(numGenerations);
+            worker.out.flush();
+        }
+        for (int n = 0; n < numGenerations; n++) {
+            boolean deterministic = gather(generation + 1);
+            cycleDetector.record(generation, stateHash, deterministic);
+        }
+    }
+
+    /**
+     * Read every worker's report of a generation and add them up.
+     *
+     * @return Whether the generation was deterministic in every strip.
+     */
+    private boolean gather(int expected) throws IOException {
+        stats.reset();
+        stateHash = 0;
+        boolean deterministic = true;
+        for (Worker worker : workers) {
+            int reported = worker.in.readInt();
+            if (reported != expected) {
+                throw new IOException("Worker reported generation " + reported + ", expected " + expected + ".");
+            }
+            for (CellType cellType : TYPES) {
+                int living = worker.in.readInt();
+                int plagued = worker.in.readInt();
+                stats.add(cellType, living, plagued);
+            }
+            stateHash ^= worker.in.readLong();
+            deterministic &= worker.in.readBoolean();
+        }
+        generation = expected;
+        if (extinctGeneration < 0 && !stats.isViable(null)) {
+            extinctGeneration = generation;
+        }
+        return deterministic;
+    }
+
+    /**
+     * Collect the strips into a snapshot of the whole field, as
+     * FieldSnapshot.save would write it.
+     *
+     * @param file The file to write, replaced if it exists.
+     * @throws IOException If the file cannot be written or a worker fails.
+     */
+    public void save(Path file) throws IOException {
+        for (Worker worker : workers) {
+            worker.out.writeByte(StripWorker.SNAPSHOT);
+            worker.out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FieldSnapshot.HEADER_SIZE);
+            FieldSnapshot.putHeader(header, depth, width, generation, Field.Edges.BOUNDED, seed);
+            write(channel, header.flip());
+            byte[] records = new byte[width * FieldSnapshot.RECORD_SIZE];
+            for (Worker worker : workers) {
+                for (int row = 0; row < worker.rows; row++) {
+                    worker.in.readFully(records);
+                    write(channel, ByteBuffer.wrap(records));
+                }
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Return the generation last gathered.
+     *
+     * @return The current generation.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Return the statistics of the whole field in the current generation.
+     *
+     * @return The statistics.
+     */
+    public FieldStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Return the state hash of the whole field in the current generation,
+     * the same as Field.getStateHash of a single-process field.
+     *
+     * @return The hash.
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Return the period of the cycle the field has settled into.
+     *
+     * @return The period in generations, or 0 if none has been found.
+     */
+    public int getCyclePeriod() {
+        return cycleDetector.getPeriod();
+    }
+
+    /**
+     * Return the first generation without living cells.
+     *
+     * @return The generation, or -1 if there are still living cells.
+     */
+    public int getExtinctGeneration() {
+        return extinctGeneration;
+    }
+
+    /**
+     * Stop the workers.
+     */
+    public void close() {
+        for (Worker worker : workers) {
+            try {
+                worker.out.writeByte(StripWorker.QUIT);
+                worker.out.flush();
+                worker.socket.close();
+            } catch (IOException e) {
+                // The worker has already gone.
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroy();
+                }
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+        processes.clear();
+    }
+
+    /**
+     * Run a distributed simulation and report the final populations and the
+     * simulation speed.
+     */
+    public static void main(String[] args) throws IOException {
+        int numWorkers = DEFAULT_NUM_WORKERS;
+        Path save = null;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--workers") && i + 1 < args.length) {
+                numWorkers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--save") && i + 1 < args.length) {
+                save = Paths.get(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+        int numRows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROWS;
+        int numColumns = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_COLUMNS;
+        int numGenerations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_GENERATIONS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        try (DistributedRunner runner = new DistributedRunner(numRows, numColumns, seed, numWorkers)) {
+            long start = System.nanoTime();
+            runner.simulate(numGenerations);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("Field: " + numRows + "x" + numColumns + ", seed " + seed
+                    + ", generation " + runner.getGeneration() + ", " + numWorkers + " workers");
+            int period = runner.getCyclePeriod();
+            int extinct = runner.getExtinctGeneration();
+            System.out.println("Generations: " + numGenerations
+                    + (period > 0 ? " (repeats every " + period + ")"
+                            : extinct >= 0 ? " (no longer viable from generation " + extinct + ")" : ""));
+            System.out.println("Population: " + runner.getStats().getPopulationDetails(null));
+            System.out.printf("Generations per second: %.1f%n", seconds > 0 ? numGenerations / seconds : 0.0);
+
+            if (save != null) {
+                runner.save(save);
+                System.out.println("Saved to " + save);
+            }
+        }
+    }
+
+    /**
+     * A worker process and the connection to it.
+     */
+    private static class Worker {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final int firstRow, rows;
+        // The port the worker below connects to.
+        final int port;
+
+        Worker(Socket socket, int firstRow, int rows) throws IOException {
+            this.socket = socket;
+            this.firstRow = firstRow;
+            this.rows = rows;
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            port = in.readInt();
+        }
+    }
+}
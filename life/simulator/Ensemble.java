@@ -0,0 +1,343 @@
+package life.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import life.model.CellType;
+
+/**
+ * Runs many independent headless simulations at once, on a fixed number of
+ * threads, to get the distribution of their outcomes. Every run has its own
+ * field and its own random generators, derived from its seed, so a run gives
+ * the same result as a Simulator with the same seed on its own, whatever else
+ * is running alongside it.
+ *
+ * The result of each run is handed to an aggregator as soon as the run
+ * finishes, on the thread that started the ensemble, so the aggregator needs
+ * no locking.
+ *
+ * Usage: Ensemble [--threads n] [runs] [rows] [columns] [generations]
+ * [first seed]
+ *
+ * runs simulations with consecutive seeds and reports the spread of their
+ * final populations.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class Ensemble implements AutoCloseable {
+    // Defaults for arguments that are not given.
+    private static final int DEFAULT_NUM_RUNS = 100;
+    private static final int DEFAULT_NUM_ROWS = 80;
+    private static final int DEFAULT_NUM_COLUMNS = 100;
+    private static final int DEFAULT_NUM_GENERATIONS = 1000;
+    private static final long DEFAULT_SEED = 1111;
+
+    private static final CellType[] TYPES = CellType.values();
+
+    private final ExecutorService pool;
+    private final int threads;
+
+    /**
+     * Create an ensemble running at most the given number of simulations at
+     * a time.
+     *
+     * @param threads The number of threads.
+     */
+    public Ensemble(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least one.");
+        }
+        this.threads = threads;
+        AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "ensemble-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run simulations, handing the result of each to the aggregator as it
+     * finishes. Returns once every run has finished.
+     *
+     * @param runs       The simulations to run.
+     * @param aggregator Given the result of each run, in the order they
+     *                   finish.
+     * @throws IllegalStateException If a run failed; the runs still going are
+     *                               cancelled.
+     * @throws InterruptedException  If interrupted while waiting for a run.
+     */
+    public void run(List<Run> runs, Consumer<Result> aggregator) throws InterruptedException {
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Run run : runs) {
+            futures.add(completion.submit(run::simulate));
+        }
+        try {
+            for (int finished = 0; finished < runs.size(); finished++) {
+                aggregator.accept(completion.take().get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A simulation failed.", e.getCause());
+        } finally {
+            for (Future<Result> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Return the number of simulations run at a time.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Stop the threads of the ensemble.
+     */
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * One simulation to run: the size of its field, its seed and how many
+     * generations to simulate at most.
+     */
+    public static class Run {
+        private final int rows, columns, generations;
+        private final long seed;
+        private final Field.Edges edges;
+
+        /**
+         * Describe a simulation on a bounded field.
+         */
+        public Run(int rows, int columns, int generations, long seed) {
+            this(rows, columns, generations, seed, Field.Edges.BOUNDED);
+        }
+
+        /**
+         * Describe a simulation.
+         *
+         * @param rows        The depth of the field.
+         * @param columns     The width of the field.
+         * @param generations The most generations to simulate.
+         * @param seed        The seed of the simulation.
+         * @param edges       What lies beyond the edges of the field.
+         */
+        public Run(int rows, int columns, int generations, long seed, Field.Edges edges) {
+            this.rows = rows;
+            this.columns = columns;
+            this.generations = generations;
+            this.seed = seed;
+            this.edges = edges;
+        }
+
+        /**
+         * Simulate until the generations have run, nothing is left alive or
+         * the field repeats.
+         */
+        private Result simulate() {
+            long start = System.nanoTime();
+            HeadlessView view = new HeadlessView();
+            Simulator simulator = new Simulator(rows, columns, seed, edges, view);
+            simulator.setStopOnCycle(true);
+            simulator.simulate(generations);
+            long nanos = System.nanoTime() - start;
+            FieldStats stats = simulator.getField().getStats();
+            int[] populations = new int[TYPES.length];
+            for (CellType cellType : TYPES) {
+                populations[cellType.ordinal()] = stats.getPopulation(cellType);
+            }
+            int period = simulator.getCyclePeriod();
+            boolean extinct = !stats.isViable(simulator.getField());
+            return new Result(this, populations, stats.getPopulationDetails(simulator.getField()),
+                    simulator.getGeneration(), extinct ? simulator.getGeneration() : -1, period, nanos);
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public int getGenerations() {
+            return generations;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public Field.Edges getEdges() {
+            return edges;
+        }
+    }
+
+    /**
+     * The outcome of one simulation.
+     */
+    public static class Result {
+        private final Run run;
+        private final int[] populations;
+        private final String details;
+        private final int generation, extinctGeneration, cyclePeriod;
+        private final long nanos;
+
+        private Result(Run run, int[] populations, String details, int generation, int extinctGeneration,
+                int cyclePeriod, long nanos) {
+            this.run = run;
+            this.populations = populations;
+            this.details = details;
+            this.generation = generation;
+            this.extinctGeneration = extinctGeneration;
+            this.cyclePeriod = cyclePeriod;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Return the simulation this is the result of.
+         */
+        public Run getRun() {
+            return run;
+        }
+
+        /**
+         * Return the number of living cells of a type in the last generation.
+         */
+        public int getPopulation(CellType cellType) {
+            return populations[cellType.ordinal()];
+        }
+
+        /**
+         * Return the living cells of each type in the last generation, as
+         * FieldStats describes them.
+         */
+        public String getPopulationDetails() {
+            return details;
+        }
+
+        /**
+         * Return the last generation simulated.
+         */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Return the generation in which nothing was left alive, or -1 if
+         * something still was at the end.
+         */
+        public int getExtinctGeneration() {
+            return extinctGeneration;
+        }
+
+        /**
+         * Return the number of generations after which the field repeated,
+         * or 0 if it did not.
+         */
+        public int getCyclePeriod() {
+            return cyclePeriod;
+        }
+
+        /**
+         * Return the time the run took, from creating its field to its last
+         * generation, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Run simulations with consecutive seeds and report the smallest,
+     * average and largest final population of each type, how many died out
+     * or repeated, and the number of runs per second.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                numThreads = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+        int numRuns = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_RUNS;
+        int numRows = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_ROWS;
+        int numColumns = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_COLUMNS;
+        int numGenerations = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_NUM_GENERATIONS;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+
+        List<Run> runs = new ArrayList<>();
+        for (int i = 0; i < numRuns; i++) {
+            runs.add(new Run(numRows, numColumns, numGenerations, seed + i));
+        }
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        try (Ensemble ensemble = new Ensemble(numThreads)) {
+            ensemble.run(runs, summary);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Runs: " + numRuns + " of " + numRows + "x" + numColumns + ", seeds " + seed + " to "
+                + (seed + numRuns - 1) + ", up to " + numGenerations + " generations, " + numThreads + " threads");
+        summary.print();
+        System.out.printf("Runs per second: %.2f%n", seconds > 0 ? numRuns / seconds : 0.0);
+    }
+
+    /**
+     * Collects the smallest, total and largest final population of each
+     * type, and how many runs died out or repeated.
+     */
+    private static class Summary implements Consumer<Result> {
+        private final int[] min = new int[TYPES.length];
+        private final int[] max = new int[TYPES.length];
+        private final long[] total = new long[TYPES.length];
+        private int runs, extinct, repeated;
+
+        Summary() {
+            Arrays.fill(min, Integer.MAX_VALUE);
+        }
+
+        public void accept(Result result) {
+            for (CellType cellType : TYPES) {
+                int type = cellType.ordinal();
+                int population = result.getPopulation(cellType);
+                min[type] = Math.min(min[type], population);
+                max[type] = Math.max(max[type], population);
+                total[type] += population;
+            }
+            runs++;
+            extinct += result.getExtinctGeneration() >= 0 ? 1 : 0;
+            repeated += result.getCyclePeriod() > 0 ? 1 : 0;
+        }
+
+        void print() {
+            for (CellType cellType : TYPES) {
+                int type = cellType.ordinal();
+                String name = cellType.name().charAt(0) + cellType.name().substring(1).toLowerCase();
+                System.out.printf("%s: min %d, mean %.1f, max %d%n", name, runs > 0 ? min[type] : 0,
+                        runs > 0 ? (double) total[type] / runs : 0.0, max[type]);
+            }
+            System.out.println("Died out: " + extinct + ", repeated: " + repeated);
+        }
+    }
+}
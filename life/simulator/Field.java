@@ -1,19 +1,31 @@
 package life.simulator;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 
 import life.model.Cell;
+import life.utils.CounterRandom;
 import life.utils.Randomizer;
 
-import java.awt.Color;
-
 /**
  * Represent a rectangular grid of field positions.
  * Each position stores a single cell
  *
+ * The cells are kept in one flat array with a border of one extra location
+ * all round, so the eight neighbours of any location are found at fixed
+ * offsets from it without checking the bounds. With bounded edges the border
+ * is always empty, and a location beyond the edge is no neighbour. With
+ * toroidal edges the border holds the cells of the opposite edge, so the
+ * field wraps round.
+ *
+ * A field can also hold just a window of a larger field, as a strip worker
+ * holds a band of rows and a sparse world a chunk. Its locations keep their
+ * rows and columns in the whole field, and the border around the window
+ * holds the neighbouring cells, which belong to other processes or chunks.
+ *
  * @author David J. Barnes, Michael Kölling, Jeffery Raphael, Ahmet Kucuk, Kota
  *         Amemiya & Mohammed Fohpa
  * @version 2023.02.16 (2)
@@ -21,36 +33,286 @@ import java.awt.Color;
 
 public class Field {
 
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // The independent random streams of each location. A cell's draws for one
+    // purpose never depend on how many numbers it drew for another.
+    public static final int NEIGHBOUR_STREAM = 0;
+    public static final int PLAGUE_STREAM = 1;
+    public static final int WOLBACHIA_STREAM = 2;
+    public static final int COLOUR_STREAM = 3;
+    // A stream no cell draws from, whose draws serve as the Zobrist keys of
+    // the cell states.
+    private static final int STATE_KEY_STREAM = 4;
+
+    /**
+     * What lies beyond the edges of a field.
+     */
+    public enum Edges {
+        // Nothing: locations on the edges have fewer neighbours.
+        BOUNDED,
+        // The opposite edge: every location has eight neighbours.
+        TOROIDAL
+    }
 
     // The depth and width of the field.
     private int depth, width;
 
-    // Storage for the cells.
-    private Cell[][] field;
+    // What lies beyond the edges of the field.
+    private final Edges edges;
+
+    // The first row and column held and the number of rows and columns held:
+    // all of them, unless this is a window of a larger field.
+    private final int firstRow, rows;
+    private final int firstCol, cols;
+
+    // Storage for the cells, row by row, with a border of one location all
+    // round. Row r, column c is at index
+    // (r - firstRow + 1) * stride + c - firstCol + 1.
+    private final Cell[] cells;
+    private final int stride;
+
+    // The offsets of the neighbours of a location from its index, in row order.
+    private final int[] neighbourOffsets;
+
+    // The seed all random draws in this field are derived from.
+    private final long seed;
+
+    // The generation the cells are currently acting in.
+    private int generation;
+
+    // One counter-based generator per thread, repositioned for every draw.
+    private final ThreadLocal<CounterRandom> random;
+
+    // The population of the field, kept up to date as cells change.
+    private final FieldStats stats = new FieldStats();
+
+    // The Zobrist hash of the state of every cell: the XOR of one key per
+    // location and cell state, kept up to date as cells change.
+    private long stateHash;
+
+    // Whether no random draw could have changed the current generation.
+    private boolean deterministic = true;
 
     /**
-     * Represent a field of the given dimensions.
+     * Represent a field of the given dimensions, drawing random numbers from
+     * the shared seed.
      * 
      * @param depth The depth of the field.
      * @param width The width of the field.
      */
     public Field(int depth, int width) {
+        this(depth, width, Randomizer.getSeed());
+    }
+
+    /**
+     * Represent a field of the given dimensions.
+     * 
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param seed  The seed all random draws in this field are derived from.
+     */
+    public Field(int depth, int width, long seed) {
+        this(depth, width, seed, Edges.BOUNDED);
+    }
+
+    /**
+     * Represent a field of the given dimensions and edges.
+     * 
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param seed  The seed all random draws in this field are derived from.
+     * @param edges What lies beyond the edges of the field.
+     * @throws IllegalArgumentException If a toroidal field is less than three
+     *                                  locations deep or wide, so that a
+     *                                  location would neighbour itself.
+     */
+    public Field(int depth, int width, long seed, Edges edges) {
+        this(depth, width, seed, edges, 0, depth, 0, width);
+        if (edges == Edges.TOROIDAL && (depth < 3 || width < 3)) {
+            throw new IllegalArgumentException("A toroidal field must be at least 3 by 3.");
+        }
+    }
+
+    /**
+     * Represent a strip of rows of a bounded field of the given dimensions.
+     * 
+     * @param depth    The depth of the whole field.
+     * @param width    The width of the whole field.
+     * @param seed     The seed all random draws in the field are derived from.
+     * @param firstRow The first row of the strip.
+     * @param rows     The number of rows in the strip.
+     */
+    Field(int depth, int width, long seed, int firstRow, int rows) {
+        this(depth, width, seed, firstRow, rows, 0, width);
+    }
+
+    /**
+     * Represent a rectangular window of a bounded field of the given
+     * dimensions.
+     * 
+     * @param depth    The depth of the whole field.
+     * @param width    The width of the whole field.
+     * @param seed     The seed all random draws in the field are derived from.
+     * @param firstRow The first row of the window.
+     * @param rows     The number of rows in the window.
+     * @param firstCol The first column of the window.
+     * @param cols     The number of columns in the window.
+     */
+    Field(int depth, int width, long seed, int firstRow, int rows, int firstCol, int cols) {
+        this(depth, width, seed, Edges.BOUNDED, firstRow, rows, firstCol, cols);
+        if (firstRow < 0 || rows < 1 || rows > depth - firstRow
+                || firstCol < 0 || cols < 1 || cols > width - firstCol) {
+            throw new IllegalArgumentException("Window " + firstRow + "+" + rows + ", " + firstCol + "+" + cols
+                    + " is outside the field.");
+        }
+    }
+
+    private Field(int depth, int width, long seed, Edges edges, int firstRow, int rows, int firstCol, int cols) {
+        if ((long) (rows + 2) * (cols + 2) > Integer.MAX_VALUE - 8) {
+            // Larger fields are held by a GridField off the heap, or a SparseWorld.
+            throw new IllegalArgumentException("Field is too large: " + rows + "x" + cols);
+        }
         this.depth = depth;
         this.width = width;
-        field = new Cell[depth][width];
+        this.seed = seed;
+        this.edges = edges;
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.firstCol = firstCol;
+        this.cols = cols;
+        stride = cols + 2;
+        cells = new Cell[(rows + 2) * stride];
+        neighbourOffsets = new int[] { -stride - 1, -stride, -stride + 1, -1, 1, stride - 1, stride, stride + 1 };
+        random = ThreadLocal.withInitial(() -> new CounterRandom(seed));
+    }
+
+    /**
+     * Return the random generator for one stream of a location in the
+     * current generation. The draws depend only on the seed, generation,
+     * location and stream, never on the order in which cells act. The
+     * generator is shared by the calling thread and is repositioned by the
+     * next call.
+     * 
+     * @param location The location drawing the numbers.
+     * @param stream   Which of the location's streams to draw from.
+     * @return A generator positioned at the first draw of that stream.
+     */
+    public Random getRandom(Location location, int stream) {
+        return random.get().position(generation, location.getRow(), location.getCol(), stream);
+    }
+
+    /**
+     * Set the generation the cells are acting in, which selects the random
+     * numbers they draw.
+     * 
+     * @param generation The current generation.
+     */
+    public void setGeneration(int generation) {
+        this.generation = generation;
+        deterministic = true;
+    }
+
+    /**
+     * Return the generation the cells are acting in.
+     * 
+     * @return The current generation.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Return the seed all random draws in this field are derived from.
+     * 
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Return what lies beyond the edges of the field.
+     * 
+     * @return The edges of the field.
+     */
+    public Edges getEdges() {
+        return edges;
+    }
+
+    /**
+     * Return the statistics of the cells in this field. They are kept up to
+     * date as cells are placed and change, so reading them is cheap.
+     * 
+     * @return The statistics of this field.
+     */
+    public FieldStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Return the Zobrist hash of the state of every cell in the field. The
+     * state of a cell is its type, whether it is alive, whether it has the
+     * plague and its energy bucket; its colour only affects how it is drawn
+     * and is left out. Equal fields have equal hashes, and different fields
+     * almost always have different ones.
+     * 
+     * @return The hash of the field.
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Return the Zobrist key of the current state of a cell at a location.
+     * The energy of a cell is bucketed: every energy of zero or below acts
+     * the same, since a cell only runs out of energy when its countdown
+     * reaches exactly zero, so they share one bucket.
+     * 
+     * @param location The location of the cell.
+     * @param cell     The cell.
+     * @return The key of the cell's state.
+     */
+    public long getStateKey(Location location, Cell cell) {
+        long state = ((long) Math.max(cell.getEnergyLeft(), 0) << 8) | (cell.getType().ordinal() << 2)
+                | (cell.isAlive() ? 2 : 0) | (cell.hasPlague() ? 1 : 0);
+        return CounterRandom.hash(seed, state, location.getRow(), location.getCol(), STATE_KEY_STREAM, 0);
+    }
+
+    /**
+     * Record that a cell changed from a state with one key to a state with
+     * another.
+     * 
+     * @param before The key of the cell's previous state.
+     * @param after  The key of the cell's new state.
+     */
+    public void stateChanged(long before, long after) {
+        stateHash ^= before ^ after;
+    }
+
+    /**
+     * Record that a random draw could change the outcome of the current
+     * generation.
+     */
+    public void recordChance() {
+        deterministic = false;
+    }
+
+    /**
+     * Return whether the current generation followed from the previous one
+     * without any random draw that could have changed it.
+     * 
+     * @return true if the generation was deterministic.
+     */
+    public boolean isDeterministic() {
+        return deterministic;
     }
 
     /**
      * Empty the field.
      */
     public void clear() {
-        for (int row = 0; row < depth; row++) {
-            for (int col = 0; col < width; col++) {
-                field[row][col] = null;
-            }
-        }
+        Arrays.fill(cells, null);
+        stats.reset();
+        stateHash = 0;
     }
 
     /**
@@ -59,7 +321,12 @@ public class Field {
      * @param location The location to clear.
      */
     public void clear(Location location) {
-        field[location.getRow()][location.getCol()] = null;
+        Cell cell = getObjectAt(location);
+        if (cell != null) {
+            stats.cellRemoved(cell);
+            stateHash ^= getStateKey(location, cell);
+        }
+        store(location.getRow(), location.getCol(), null);
     }
 
     /**
@@ -82,7 +349,98 @@ public class Field {
      * @param location Where to place the cell.
      */
     public void place(Cell cell, Location location) {
-        field[location.getRow()][location.getCol()] = cell;
+        Cell previous = getObjectAt(location);
+        if (previous == cell) {
+            return;
+        }
+        if (previous != null) {
+            stats.cellRemoved(previous);
+            stateHash ^= getStateKey(location, previous);
+        }
+        store(location.getRow(), location.getCol(), cell);
+        stats.cellAdded(cell);
+        stateHash ^= getStateKey(location, cell);
+    }
+
+    /**
+     * Store a cell at a location. In a toroidal field a cell on an edge is
+     * also stored in the border beyond the opposite edge, and a cell in a
+     * corner in the three borders beyond the opposite corner. The cells stay
+     * at their locations as they change, so the border only needs updating
+     * here, not every generation.
+     */
+    private void store(int row, int col, Cell cell) {
+        cells[index(row, col)] = cell;
+        if (edges == Edges.TOROIDAL) {
+            int otherRow = row == 0 ? depth : row == depth - 1 ? -1 : row;
+            int otherCol = col == 0 ? width : col == width - 1 ? -1 : col;
+            cells[index(otherRow, col)] = cell;
+            cells[index(row, otherCol)] = cell;
+            cells[index(otherRow, otherCol)] = cell;
+        }
+    }
+
+    /**
+     * Return the index of a location in the cell array. The rows and columns
+     * just outside those held address the border.
+     */
+    private int index(int row, int col) {
+        return (row - firstRow + 1) * stride + col - firstCol + 1;
+    }
+
+    /**
+     * Set a location in the border around a window to a cell held by the
+     * process or chunk that owns it, or to null. The cell is only read, as a
+     * neighbour; it is not counted in the statistics or state hash.
+     * 
+     * @param row  The row of the location.
+     * @param col  The column of the location.
+     * @param cell The cell at the location, or null.
+     */
+    void setNeighbouringCell(int row, int col, Cell cell) {
+        boolean inRows = row >= firstRow && row < firstRow + rows;
+        boolean inCols = col >= firstCol && col < firstCol + cols;
+        if (row < firstRow - 1 || row > firstRow + rows || col < firstCol - 1 || col > firstCol + cols
+                || (inRows && inCols)) {
+            throw new IllegalArgumentException("Location " + row + "," + col + " does not border the window.");
+        }
+        cells[index(row, col)] = cell;
+    }
+
+    /**
+     * Return the first row held by this field.
+     * 
+     * @return 0, or the first row of a window.
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Return the number of rows held by this field.
+     * 
+     * @return The depth, or the number of rows of a window.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the first column held by this field.
+     * 
+     * @return 0, or the first column of a window.
+     */
+    public int getFirstCol() {
+        return firstCol;
+    }
+
+    /**
+     * Return the number of columns held by this field.
+     * 
+     * @return The width, or the number of columns of a window.
+     */
+    public int getCols() {
+        return cols;
     }
 
     /**
@@ -103,7 +461,10 @@ public class Field {
      * @return The cell at the given location, or null if there is none.
      */
     public Cell getObjectAt(int row, int col) {
-        return field[row][col];
+        if (row < firstRow || row >= firstRow + rows || col < firstCol || col >= firstCol + cols) {
+            throw new ArrayIndexOutOfBoundsException("Location " + row + "," + col + " is outside the field.");
+        }
+        return cells[index(row, col)];
     }
 
     /**
@@ -123,22 +484,36 @@ public class Field {
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
-     * All locations will lie within the grid.
+     * All locations will lie within the grid; in a toroidal field those
+     * beyond an edge are wrapped round to the opposite edge.
      * 
      * @param location The location from which to generate adjacencies.
      * @return A list of locations adjacent to that given.
      */
     public List<Location> adjacentLocations(Location location) {
+        return adjacentLocations(location, getRandom(location, NEIGHBOUR_STREAM));
+    }
+
+    /**
+     * Return a list of locations adjacent to the given one, shuffled with the
+     * given generator.
+     * 
+     * @param location The location from which to generate adjacencies.
+     * @param rand     The generator to shuffle with.
+     * @return A list of locations adjacent to that given.
+     */
+    private List<Location> adjacentLocations(Location location, Random rand) {
         assert location != null : "Null location passed to adjacentLocations";
         List<Location> locations = new LinkedList<>();
         if (location != null) {
             int row = location.getRow();
             int col = location.getCol();
+            boolean wrap = edges == Edges.TOROIDAL;
             for (int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
+                int nextRow = wrap ? (row + roffset + depth) % depth : row + roffset;
                 if (nextRow >= 0 && nextRow < depth) {
                     for (int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
+                        int nextCol = wrap ? (col + coffset + width) % width : col + coffset;
                         // Exclude invalid locations and the original location.
                         if (nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
                             locations.add(new Location(nextRow, nextCol));
@@ -164,10 +539,11 @@ public class Field {
         List<Cell> neighbours = new LinkedList<>();
 
         if (location != null) {
-            List<Location> adjLocations = adjacentLocations(location);
+            Random rand = getRandom(location, NEIGHBOUR_STREAM);
+            List<Location> adjLocations = adjacentLocations(location, rand);
 
             for (Location loc : adjLocations) {
-                Cell cell = field[loc.getRow()][loc.getCol()];
+                Cell cell = cells[index(loc.getRow(), loc.getCol())];
                 if (cell.isAlive())
                     neighbours.add(cell);
             }
@@ -176,13 +552,59 @@ public class Field {
         return neighbours;
     }
 
+    /**
+     * Fill a caller-supplied buffer with the living neighbours of a location.
+     * The neighbours are shuffled with the same random draws as
+     * getLivingNeighbours(Location), but no objects are allocated. The
+     * neighbours are read at fixed offsets into the bordered cell array; the
+     * empty border of a bounded field simply drops out.
+     *
+     * @param location      Get locations adjacent to this.
+     * @param neighbourhood The buffer to fill.
+     * @return The filled buffer.
+     */
+    public Neighbourhood getLivingNeighbours(Location location, Neighbourhood neighbourhood) {
+        assert location != null : "Null location passed to getLivingNeighbours";
+        neighbourhood.clear();
+        Random rand = getRandom(location, NEIGHBOUR_STREAM);
+
+        int centre = index(location.getRow(), location.getCol());
+        Cell[] adjacentCells = neighbourhood.adjacent;
+        int adjacent = 0;
+        for (int offset : neighbourOffsets) {
+            // Always store, but only keep the cell if there is one.
+            Cell cell = cells[centre + offset];
+            adjacentCells[adjacent] = cell;
+            adjacent += cell != null ? 1 : 0;
+        }
+
+        // Shuffle the adjacent cells exactly as Collections.shuffle would.
+        for (int i = adjacent; i > 1; i--) {
+            int j = rand.nextInt(i);
+            Cell tmp = adjacentCells[i - 1];
+            adjacentCells[i - 1] = adjacentCells[j];
+            adjacentCells[j] = tmp;
+        }
+
+        for (int i = 0; i < adjacent; i++) {
+            Cell cell = adjacentCells[i];
+            if (cell.isAlive()) {
+                neighbourhood.add(cell);
+            }
+        }
+        for (int i = neighbourhood.size(); i > 1; i--) {
+            neighbourhood.swap(i - 1, rand.nextInt(i));
+        }
+        return neighbourhood;
+    }
+
     /**
      * Returns the color of the most common neighbor.
      *
      * @param mostCommonNeighbour The most common neighbor cell.
-     * @return The color of the most common neighbor cell.
+     * @return The packed color of the most common neighbor cell.
      */
-    public Color getMostCommonNeighbourColour(Cell mostCommonNeighbour) {
+    public int getMostCommonNeighbourColour(Cell mostCommonNeighbour) {
         return mostCommonNeighbour.getColor();
     }
 
@@ -211,6 +633,17 @@ public class Field {
         return mostCommonNeighbour;
     }
 
+    /**
+     * Finds and returns the most common neighbor cell among the living
+     * neighbors, using the per-type counts of the buffer.
+     *
+     * @param neighbourhood The living neighbours of a location.
+     * @return The most common neighbor cell.
+     */
+    public Cell getMostCommonNeighbour(Neighbourhood neighbourhood) {
+        return neighbourhood.getMostCommon();
+    }
+
     /**
      * Return the depth of the field.
      * 
@@ -0,0 +1,216 @@
+package life.simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.model.CellType;
+
+/**
+ * Saves a field to a binary snapshot file and loads it back. The file is
+ * read and written through memory-mapped windows, one pass over the cells in
+ * row order, so even fields of several gigabytes are copied straight between
+ * the file and the cells.
+ *
+ * The format, version 1, is big-endian. A header of HEADER_SIZE bytes holds
+ * the magic number, the version, the depth, the width, the generation, a
+ * flags int (TOROIDAL, or 0 for bounded edges) and the seed. The random
+ * state of a field is fully described by its seed and generation, since its
+ * draws are a function of them. Then every location follows, row by row, as
+ * a RECORD_SIZE byte record: the type ordinal (or EMPTY), a flags byte
+ * (ALIVE, PLAGUE), the energy and the packed colour.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public final class FieldSnapshot {
+    // The first four bytes of a snapshot, "CELL".
+    public static final int MAGIC = 0x43454C4C;
+    // The version of the format written.
+    public static final int VERSION = 1;
+
+    // The size of the header and of each cell record in bytes.
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 10;
+
+    // The type byte of a location without a cell.
+    public static final byte EMPTY = -1;
+    // The bits of the flags byte.
+    public static final byte ALIVE = 1;
+    public static final byte PLAGUE = 2;
+    // The bits of the header flags.
+    public static final int TOROIDAL = 1;
+
+    // The most records mapped at once. A single mapping cannot exceed 2GB.
+    private static final int WINDOW_RECORDS = (1 << 30) / RECORD_SIZE;
+
+    private static final CellType[] TYPES = CellType.values();
+
+    private FieldSnapshot() {
+    }
+
+    /**
+     * Save a field, replacing the file if it exists.
+     *
+     * @param field The field to save.
+     * @param file  The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void save(Field field, Path file) throws IOException {
+        int depth = field.getDepth();
+        int width = field.getWidth();
+        long records = (long) depth * width;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            putHeader(header, depth, width, field.getGeneration(), field.getEdges(), field.getSeed());
+
+            int row = 0, col = 0;
+            for (long first = 0; first < records; first += WINDOW_RECORDS) {
+                int count = (int) Math.min(WINDOW_RECORDS, records - first);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + first * RECORD_SIZE, (long) count * RECORD_SIZE);
+                for (int i = 0; i < count; i++) {
+                    putRecord(window, field.getObjectAt(row, col));
+                    if (++col == width) {
+                        col = 0;
+                        row++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Load a field. The field is at the generation it was saved in, so a
+     * simulation of it carries on where the saved one left off.
+     *
+     * @param file The file to read.
+     * @return The field.
+     * @throws IOException If the file cannot be read or is not a snapshot
+     *                     this version can read.
+     */
+    public static Field load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a field snapshot: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a field snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int depth = header.getInt();
+            int width = header.getInt();
+            int generation = header.getInt();
+            int flags = header.getInt();
+            long seed = header.getLong();
+            long records = (long) depth * width;
+            if (depth <= 0 || width <= 0 || channel.size() != HEADER_SIZE + records * RECORD_SIZE) {
+                throw new IOException("Truncated or corrupt snapshot: " + file);
+            }
+            Field.Edges edges = (flags & TOROIDAL) != 0 ? Field.Edges.TOROIDAL : Field.Edges.BOUNDED;
+            if (edges == Field.Edges.TOROIDAL && (depth < 3 || width < 3)) {
+                throw new IOException("Corrupt snapshot: " + file);
+            }
+
+            Field field = new Field(depth, width, seed, edges);
+            field.setGeneration(generation);
+            int row = 0, col = 0;
+            for (long first = 0; first < records; first += WINDOW_RECORDS) {
+                int count = (int) Math.min(WINDOW_RECORDS, records - first);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * RECORD_SIZE, (long) count * RECORD_SIZE);
+                for (int i = 0; i < count; i++) {
+                    getRecord(window, field, row, col);
+                    if (++col == width) {
+                        col = 0;
+                        row++;
+                    }
+                }
+            }
+            return field;
+        }
+    }
+
+    /**
+     * Write the header of a snapshot.
+     *
+     * @param buffer     The buffer to write to.
+     * @param depth      The depth of the field.
+     * @param width      The width of the field.
+     * @param generation The generation of the field.
+     * @param edges      The edges of the field.
+     * @param seed       The seed of the field.
+     */
+    static void putHeader(ByteBuffer buffer, int depth, int width, int generation, Field.Edges edges, long seed) {
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(depth).putInt(width).putInt(generation)
+                .putInt(edges == Field.Edges.TOROIDAL ? TOROIDAL : 0).putLong(seed);
+    }
+
+    /**
+     * Write the record of one location.
+     *
+     * @param buffer The buffer to write to.
+     * @param cell   The cell at the location, or null.
+     */
+    static void putRecord(ByteBuffer buffer, Cell cell) {
+        if (cell == null) {
+            buffer.put(EMPTY).put((byte) 0).putInt(0).putInt(0);
+        } else {
+            byte flags = (byte) ((cell.isAlive() ? ALIVE : 0) | (cell.hasPlague() ? PLAGUE : 0));
+            buffer.put((byte) cell.getType().ordinal()).put(flags)
+                    .putInt(cell.getEnergyLeft()).putInt(cell.getColor());
+        }
+    }
+
+    /**
+     * Read the record of one location into a field. A cell already at the
+     * location is kept if it has the recorded type, and replaced otherwise.
+     * The field's generation must already be set. After a generation a
+     * cell's next state is the state it switched to, but in generation 0 the
+     * cells have not chosen a next state yet, as in a newly populated field,
+     * and some rules carry the next state over.
+     *
+     * @param buffer The buffer to read from.
+     * @param field  The field to update.
+     * @param row    The row of the location.
+     * @param col    The column of the location.
+     * @throws IOException If the record has an unknown cell type.
+     */
+    static void getRecord(ByteBuffer buffer, Field field, int row, int col) throws IOException {
+        byte type = buffer.get();
+        byte flags = buffer.get();
+        int energy = buffer.getInt();
+        int colour = buffer.getInt();
+        Cell cell = field.getObjectAt(row, col);
+        if (type == EMPTY) {
+            if (cell != null) {
+                field.clear(new Location(row, col));
+            }
+            return;
+        }
+        if (type < 0 || type >= TYPES.length) {
+            throw new IOException("Unknown cell type " + type + " at " + row + "," + col);
+        }
+        if (cell == null || cell.getType() != TYPES[type]) {
+            cell = CellFactory.createCell(TYPES[type], field, new Location(row, col));
+        }
+        boolean alive = (flags & ALIVE) != 0;
+        cell.setNextState(alive);
+        cell.updateState();
+        cell.setNextState(alive && field.getGeneration() > 0);
+        cell.setEnergyLeft(energy);
+        cell.setColor(colour);
+        cell.setPlagued((flags & PLAGUE) != 0);
+    }
+}
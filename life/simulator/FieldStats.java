@@ -1,13 +1,19 @@
 package life.simulator;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 
 import life.model.Cell;
+import life.model.CellType;
 
 /**
  * This class collects and provides some statistical data on the state
- * of a field. It is flexible: it will create and maintain a counter
- * for any class of object that is found within the field.
+ * of a field: the number of living cells of each type, and the number of
+ * cells of each type that have the plague.
+ *
+ * The counts are kept up to date as the cells change, instead of by counting
+ * the field: the field reports cells being placed and removed, and the cells
+ * report every change of their alive state and plague. Reading the statistics
+ * therefore only looks at one counter per cell type.
  *
  * @author David J. Barnes, Michael Kölling, Ahmet Kucuk, Kota Amemiya &
  *         Mohammed Fohpa
@@ -15,88 +21,190 @@ import life.model.Cell;
  */
 
 public class FieldStats {
-    // Counters for each type of life in the simulation.
-    private HashMap<Class, Counter> counters;
-    // Whether the counters are currently up to date.
-    private boolean countsValid;
+    // Counters of the living cells of each type.
+    private final EnumMap<CellType, Counter> living;
+    // Counters of the cells of each type that have the plague.
+    private final EnumMap<CellType, Counter> plagued;
+    // Counters of the cells of each type placed in the field, living or
+    // dead.
+    private final EnumMap<CellType, Counter> placed;
+    // The population details last built, or null if the counts changed since.
+    private String details;
 
     /**
-     * Construct a FieldStats object. Set up a collection for counters for
-     * each type of cell that we might find
+     * Construct a FieldStats object with a counter for each type of cell.
      */
     public FieldStats() {
-        counters = new HashMap<>();
-        countsValid = true;
+        living = new EnumMap<>(CellType.class);
+        plagued = new EnumMap<>(CellType.class);
+        placed = new EnumMap<>(CellType.class);
+        for (CellType cellType : CellType.values()) {
+            String name = cellType.name().charAt(0) + cellType.name().substring(1).toLowerCase();
+            living.put(cellType, new Counter(name));
+            plagued.put(cellType, new Counter(name));
+            placed.put(cellType, new Counter(name));
+        }
     }
 
     /**
-     * Get details of what is in the field.
-     * 
-     * @return A string describing what is in the field.
+     * Get details of the living cells in the field.
+     *
+     * @param field The field the statistics are for.
+     * @return A string describing the living cells of each type.
      */
     public String getPopulationDetails(Field field) {
-        StringBuffer buffer = new StringBuffer();
-        if (!countsValid) {
-            generateCounts(field);
+        if (details == null) {
+            StringBuilder builder = new StringBuilder();
+            for (Counter info : living.values()) {
+                builder.append(info.getName());
+                builder.append(": ");
+                builder.append(info.getCount());
+                builder.append(' ');
+            }
+            details = builder.toString();
         }
-        for (Class key : counters.keySet()) {
-            Counter info = counters.get(key);
-            buffer.append(key.getSimpleName());
-            buffer.append(": ");
-            buffer.append(info.getCount());
-            buffer.append(' ');
+        return details;
+    }
+
+    /**
+     * Return the number of living cells of a type.
+     *
+     * @param cellType The type of cell.
+     * @return The number of living cells of that type.
+     */
+    public int getPopulation(CellType cellType) {
+        return living.get(cellType).getCount();
+    }
+
+    /**
+     * Return the number of cells of a type that have the plague.
+     *
+     * @param cellType The type of cell.
+     * @return The number of plagued cells of that type.
+     */
+    public int getPlagued(CellType cellType) {
+        return plagued.get(cellType).getCount();
+    }
+
+    /**
+     * Return the number of cells of a type placed in the field, living or
+     * dead. Counts added from elsewhere are not included.
+     *
+     * @param cellType The type of cell.
+     * @return The number of cells of that type.
+     */
+    public int getCells(CellType cellType) {
+        return placed.get(cellType).getCount();
+    }
+
+    /**
+     * Return the number of cells that have the plague.
+     *
+     * @return The number of plagued cells of every type.
+     */
+    public int getPlaguedTotal() {
+        int total = 0;
+        for (Counter info : plagued.values()) {
+            total += info.getCount();
         }
-        return buffer.toString();
+        return total;
     }
 
     /**
-     * Invalidate the current set of statistics; reset all
-     * counts to zero.
+     * Reset all counts to zero, as when the field is emptied.
      */
     public void reset() {
-        countsValid = false;
-        for (Class key : counters.keySet()) {
-            Counter count = counters.get(key);
-            count.reset();
+        for (CellType cellType : CellType.values()) {
+            living.get(cellType).reset();
+            plagued.get(cellType).reset();
+            placed.get(cellType).reset();
         }
+        details = null;
     }
 
     /**
-     * Increment the count for one class of life
-     * 
-     * @param cellClass The class of cell to increment.
+     * Count a cell that has been placed in the field.
+     *
+     * @param cell The cell.
      */
-    public void incrementCount(Class cellClass) {
-        Counter count = counters.get(cellClass);
+    public void cellAdded(Cell cell) {
+        placed.get(cell.getType()).increment();
+        if (cell.isAlive()) {
+            aliveChanged(cell.getType(), true);
+        }
+        if (cell.hasPlague()) {
+            plagueChanged(cell.getType(), true);
+        }
+    }
 
-        if (count == null) {
-            // We do not have a counter for this species yet. Create one.
-            count = new Counter(cellClass.getName());
-            counters.put(cellClass, count);
+    /**
+     * Stop counting a cell that has been removed from the field.
+     *
+     * @param cell The cell.
+     */
+    public void cellRemoved(Cell cell) {
+        placed.get(cell.getType()).decrement();
+        if (cell.isAlive()) {
+            aliveChanged(cell.getType(), false);
+        }
+        if (cell.hasPlague()) {
+            plagueChanged(cell.getType(), false);
         }
-        count.increment();
     }
 
     /**
-     * Indicate that a cell count has been completed.
+     * Add counts gathered elsewhere, as from the strips of a field split
+     * between processes.
+     *
+     * @param cellType The type of cell.
+     * @param living   The number of living cells of that type to add.
+     * @param plagued  The number of plagued cells of that type to add.
      */
-    public void countFinished() {
-        countsValid = true;
+    public void add(CellType cellType, int living, int plagued) {
+        this.living.get(cellType).add(living);
+        this.plagued.get(cellType).add(plagued);
+        details = null;
+    }
+
+    /**
+     * Record that a cell came alive or died.
+     *
+     * @param cellType The type of the cell.
+     * @param alive    true if the cell came alive, false if it died.
+     */
+    public void aliveChanged(CellType cellType, boolean alive) {
+        change(living.get(cellType), alive);
+    }
+
+    /**
+     * Record that a cell caught or lost the plague.
+     *
+     * @param cellType The type of the cell.
+     * @param plague   true if the cell caught the plague, false if it lost it.
+     */
+    public void plagueChanged(CellType cellType, boolean plague) {
+        change(plagued.get(cellType), plague);
+    }
+
+    private void change(Counter counter, boolean up) {
+        if (up) {
+            counter.increment();
+        } else {
+            counter.decrement();
+        }
+        details = null;
     }
 
     /**
      * Determine whether the simulation is still viable.
      * I.e., should it continue to run.
-     * 
+     *
+     * @param field The field the statistics are for.
      * @return true If there is more than one life form alive
      */
     public boolean isViable(Field field) {
         int nonZero = 0;
-        if (!countsValid) {
-            generateCounts(field);
-        }
-        for (Class key : counters.keySet()) {
-            Counter info = counters.get(key);
+        for (Counter info : living.values()) {
             if (info.getCount() > 0) {
                 nonZero++;
             }
@@ -104,24 +212,4 @@ public class FieldStats {
 
         return nonZero >= 1;
     }
-
-    /**
-     * Generate counts of the number of cells.
-     * These are not kept up to date.
-     * 
-     * @param field The field to generate the stats for.
-     */
-    private void generateCounts(Field field) {
-        reset();
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Cell cell = field.getObjectAt(row, col);
-
-                if (cell != null) {
-                    incrementCount(cell.getClass());
-                }
-            }
-        }
-        countsValid = true;
-    }
 }
@@ -0,0 +1,68 @@
+package life.simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one instrumented generation: how long each
+ * phase took, how many cells of each type were left alive and how much the
+ * simulation thread allocated. The event lasts the whole generation.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+@Name("life.simulator.Generation")
+@Label("Generation")
+@Category("Cell Simulator")
+@Description("One generation of a simulation, phase by phase")
+@StackTrace(false)
+class GenerationEvent extends jdk.jfr.Event {
+    @Label("Generation")
+    int generation;
+
+    @Label("Act")
+    @Description("Every cell deciding its next state")
+    @Timespan
+    long act;
+
+    @Label("Update")
+    @Description("Every cell switching to its next state")
+    @Timespan
+    long update;
+
+    @Label("Stats")
+    @Description("Recording the state of the field in its history")
+    @Timespan
+    long stats;
+
+    @Label("Render")
+    @Description("Reporting the generation to the view")
+    @Timespan
+    long render;
+
+    @Label("Living Mycoplasma")
+    int mycoplasma;
+
+    @Label("Living Escherichia")
+    int escherichia;
+
+    @Label("Living Photobacterium")
+    int photobacterium;
+
+    @Label("Living Pseudomonas")
+    int pseudomonas;
+
+    @Label("Living Wolbachia")
+    int wolbachia;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the simulation thread, or -1 if not measured")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,130 @@
+package life.simulator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+
+/**
+ * Runs a simulation in batch mode, without a window. The field is never
+ * drawn, so the runner works on servers without a display.
+ * 
+ * Usage: HeadlessRunner [--save file] [--record file] [--toroidal]
+ * [--instrument] [--jmx name] [rows] [columns] [generations] [seed]
+ * or: HeadlessRunner [--save file] [--record file] [--instrument] [--jmx name]
+ * --load file [generations]
+ *
+ * With --load the field, its generation and seed come from a snapshot. With
+ * --save the final field is written to a snapshot. With --record every
+ * generation is recorded for a RunReader. With --toroidal the field wraps
+ * round at its edges. With --instrument the share of the time taken by each
+ * phase of a generation is reported, and each generation is sent to Flight
+ * Recorder if a recording is running. With --jmx the simulation is registered
+ * as a SimulatorMXBean under the given name while it runs; stopping it there
+ * ends the run early, and a delay set there slows it down.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class HeadlessRunner {
+  // Defaults for arguments that are not given.
+  private static final int DEFAULT_NUM_ROWS = 80;
+  private static final int DEFAULT_NUM_COLUMNS = 100;
+  private static final int DEFAULT_NUM_GENERATIONS = 1000;
+  private static final long DEFAULT_SEED = 1111;
+
+  /**
+   * Run a headless simulation and report the final populations and the
+   * simulation speed.
+   */
+  public static void main(String[] args) throws IOException, JMException {
+    System.setProperty("java.awt.headless", "true");
+
+    Path load = null;
+    Path save = null;
+    Path record = null;
+    Field.Edges edges = Field.Edges.BOUNDED;
+    boolean instrument = false;
+    String jmx = null;
+    List<String> positional = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--load") && i + 1 < args.length) {
+        load = Paths.get(args[++i]);
+      } else if (args[i].equals("--save") && i + 1 < args.length) {
+        save = Paths.get(args[++i]);
+      } else if (args[i].equals("--record") && i + 1 < args.length) {
+        record = Paths.get(args[++i]);
+      } else if (args[i].equals("--toroidal")) {
+        edges = Field.Edges.TOROIDAL;
+      } else if (args[i].equals("--instrument")) {
+        instrument = true;
+      } else if (args[i].equals("--jmx") && i + 1 < args.length) {
+        jmx = args[++i];
+      } else {
+        positional.add(args[i]);
+      }
+    }
+    args = positional.toArray(new String[0]);
+
+    HeadlessView view = new HeadlessView();
+    RunRecorder recorder = record != null ? new RunRecorder(record, view) : null;
+    SimulationView shown = recorder != null ? recorder : view;
+    int numRows, numColumns, numGenerations;
+    long seed;
+    Simulator simulator;
+    if (load != null) {
+      Field field = FieldSnapshot.load(load);
+      numRows = field.getDepth();
+      numColumns = field.getWidth();
+      numGenerations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_GENERATIONS;
+      seed = field.getSeed();
+      simulator = new Simulator(field, shown);
+    } else {
+      numRows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROWS;
+      numColumns = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_COLUMNS;
+      numGenerations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_GENERATIONS;
+      seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+      simulator = new Simulator(numRows, numColumns, seed, edges, shown);
+    }
+    // Nothing new can happen once the field repeats.
+    simulator.setStopOnCycle(true);
+    if (instrument) {
+      simulator.setInstrumented(true);
+    }
+    if (jmx != null) {
+      simulator.registerMBean(jmx);
+    }
+
+    long start = System.nanoTime();
+    int simulated = simulator.simulate(numGenerations);
+    if (recorder != null) {
+      recorder.close();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    if (jmx != null) {
+      simulator.unregisterMBean();
+    }
+
+    System.out.println("Field: " + numRows + "x" + numColumns
+        + (simulator.getField().getEdges() == Field.Edges.TOROIDAL ? " toroidal" : "") + ", seed " + seed
+        + ", generation " + simulator.getGeneration());
+    int period = simulator.getCyclePeriod();
+    System.out.println("Generations: " + simulated
+        + (period > 0 ? " (repeats every " + period + ")"
+            : simulated < numGenerations ? " (no longer viable)" : ""));
+    System.out.println("Population: " + view.getPopulationDetails(simulator.getField()));
+    System.out.printf("Generations per second: %.1f%n", seconds > 0 ? simulated / seconds : 0.0);
+    if (simulator.getInstrumentation() != null) {
+      System.out.println("Phases: " + simulator.getInstrumentation().getSummary());
+    }
+
+    if (save != null) {
+      FieldSnapshot.save(simulator.getField(), save);
+      System.out.println("Saved to " + save);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package life.simulator;
+
+/**
+ * A view that displays nothing. The field keeps its own population counts,
+ * which the simulator reads to decide whether to carry on, so a simulation
+ * can run on a machine without a display.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class HeadlessView implements SimulationView {
+    /**
+     * Nothing is shown: the population counts are already up to date.
+     * 
+     * @param generation The current generation.
+     * @param field      The field whose status is to be shown.
+     */
+    public void showStatus(int generation, Field field) {
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * 
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable(Field field) {
+        return field.getStats().isViable(field);
+    }
+
+    /**
+     * Get details of the living population of the field.
+     * 
+     * @return A string describing the living cells of each type.
+     */
+    public String getPopulationDetails(Field field) {
+        return field.getStats().getPopulationDetails(field);
+    }
+}
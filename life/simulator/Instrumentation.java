@@ -0,0 +1,250 @@
+package life.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import jdk.jfr.EventType;
+import life.model.CellType;
+
+/**
+ * Timings of the phases of each generation of a Simulator, with the number
+ * of times cells of each type acted and the bytes allocated. A Simulator
+ * only collects them while it is instrumented; otherwise it runs exactly as
+ * without them, so they can be left in for production. Each instrumented
+ * generation is also committed as a GenerationEvent to any Flight Recorder
+ * recording that has the event enabled; the event is only created then, so
+ * without a recording a generation allocates nothing for its timings.
+ *
+ * The simulator marks the end of each phase as it goes. The acts are counted
+ * from the field's statistics once the generation is over, outside the
+ * timed phases.
+ *
+ * Every count is written by the simulation thread only. Other threads read
+ * them without locking, so a reading taken while the simulation runs may mix
+ * values from neighbouring generations.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class Instrumentation {
+    /**
+     * The phases of a generation.
+     */
+    public enum Phase {
+        // Every cell deciding its next state.
+        ACT,
+        // Every cell switching to its next state.
+        UPDATE,
+        // Recording the state of the field in its history.
+        STATS,
+        // Reporting the generation to the view.
+        RENDER
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final CellType[] TYPES = CellType.values();
+
+    // Measures the bytes allocated by a thread, or null if it cannot.
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+    // Whether any recording wants generation events.
+    private static final EventType GENERATION_EVENT = EventType.getEventType(GenerationEvent.class);
+
+    // The time of each phase in the last generation, and in all of them.
+    private final long[] lastNanos = new long[PHASES.length];
+    private final long[] totalNanos = new long[PHASES.length];
+    // The number of times cells of each type acted.
+    private final long[] acts = new long[TYPES.length];
+    private long generations;
+    private long lastAllocated = -1;
+    private long totalAllocated;
+
+    // The generation being timed: when its current phase began, the bytes
+    // allocated before it began, and its event, or null if no recording
+    // wants one.
+    private long phaseStart;
+    private long allocatedBefore;
+    private GenerationEvent event;
+
+    /**
+     * Return the bean measuring the bytes allocated by a thread, if this JVM
+     * has one that can.
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the bytes allocated by the calling thread so far, or -1 if they
+     * cannot be measured.
+     */
+    static long allocatedBytes() {
+        return ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Return the number of living cells of each type, by type ordinal.
+     */
+    static int[] population(FieldStats stats) {
+        int[] living = new int[TYPES.length];
+        for (CellType cellType : TYPES) {
+            living[cellType.ordinal()] = stats.getPopulation(cellType);
+        }
+        return living;
+    }
+
+    /**
+     * Start timing a generation. Called by the simulation thread before the
+     * first phase.
+     */
+    void startGeneration() {
+        if (GENERATION_EVENT.isEnabled()) {
+            event = new GenerationEvent();
+            event.begin();
+        }
+        allocatedBefore = allocatedBytes();
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Mark the end of a phase of the generation being timed; the next phase
+     * starts now.
+     *
+     * @param phase The phase that ended.
+     */
+    void endPhase(Phase phase) {
+        long now = System.nanoTime();
+        long nanos = now - phaseStart;
+        lastNanos[phase.ordinal()] = nanos;
+        totalNanos[phase.ordinal()] += nanos;
+        phaseStart = now;
+    }
+
+    /**
+     * Finish timing a generation once its last phase has ended: count the
+     * acts of its cells and commit it to Flight Recorder.
+     *
+     * @param generation The generation.
+     * @param stats      The statistics of the field at the end of it.
+     */
+    void endGeneration(int generation, FieldStats stats) {
+        long allocated = allocatedBefore >= 0 ? allocatedBytes() - allocatedBefore : -1;
+        lastAllocated = allocated;
+        if (allocated > 0) {
+            totalAllocated += allocated;
+        }
+        // Every cell in the field acts once a generation.
+        for (CellType cellType : TYPES) {
+            acts[cellType.ordinal()] += stats.getCells(cellType);
+        }
+        generations++;
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.generation = generation;
+                event.act = lastNanos[Phase.ACT.ordinal()];
+                event.update = lastNanos[Phase.UPDATE.ordinal()];
+                event.stats = lastNanos[Phase.STATS.ordinal()];
+                event.render = lastNanos[Phase.RENDER.ordinal()];
+                event.mycoplasma = stats.getPopulation(CellType.MYCOPLASMA);
+                event.escherichia = stats.getPopulation(CellType.ESCHERICHIA);
+                event.photobacterium = stats.getPopulation(CellType.PHOTOBACTERIUM);
+                event.pseudomonas = stats.getPopulation(CellType.PSEUDOMONAS);
+                event.wolbachia = stats.getPopulation(CellType.WOLBACHIA);
+                event.allocated = allocated;
+                event.commit();
+            }
+            event = null;
+        }
+    }
+
+    /**
+     * Return the number of generations instrumented.
+     *
+     * @return The number of generations.
+     */
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Return the time a phase took in the last instrumented generation.
+     *
+     * @param phase The phase.
+     * @return The time in nanoseconds.
+     */
+    public long getLastNanos(Phase phase) {
+        return lastNanos[phase.ordinal()];
+    }
+
+    /**
+     * Return the time a phase took over all instrumented generations.
+     *
+     * @param phase The phase.
+     * @return The time in nanoseconds.
+     */
+    public long getTotalNanos(Phase phase) {
+        return totalNanos[phase.ordinal()];
+    }
+
+    /**
+     * Return the number of times cells of a type acted over all
+     * instrumented generations.
+     *
+     * @param cellType The type of cell.
+     * @return The number of acts.
+     */
+    public long getActs(CellType cellType) {
+        return acts[cellType.ordinal()];
+    }
+
+    /**
+     * Return the bytes the simulation thread allocated in the last
+     * instrumented generation.
+     *
+     * @return The bytes, or -1 if they cannot be measured.
+     */
+    public long getLastAllocatedBytes() {
+        return lastAllocated;
+    }
+
+    /**
+     * Return the bytes the simulation thread allocated over all instrumented
+     * generations.
+     *
+     * @return The bytes, or 0 if they cannot be measured.
+     */
+    public long getTotalAllocatedBytes() {
+        return totalAllocated;
+    }
+
+    /**
+     * Describe the share of the time taken by each phase, and the time of an
+     * average generation.
+     *
+     * @return A line such as "act 80.1%, update 9.5%, ... per generation".
+     */
+    public String getSummary() {
+        long total = 0;
+        for (Phase phase : PHASES) {
+            total += totalNanos[phase.ordinal()];
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : PHASES) {
+            builder.append(phase.name().toLowerCase()).append(' ');
+            builder.append(String.format("%.1f%%", total > 0 ? 100.0 * totalNanos[phase.ordinal()] / total : 0.0));
+            builder.append(", ");
+        }
+        long count = generations;
+        builder.append(String.format("%.3f ms per generation", count > 0 ? total / 1e6 / count : 0.0));
+        return builder.toString();
+    }
+}
@@ -22,7 +22,9 @@ public class Location {
     }
 
     public int hashCode() {
-        return (row << 16) + col;
+        // Multiplying by an odd constant spreads the rows over all the bits,
+        // so that columns past 65535 do not collide with the next row.
+        return row * 0x9E3779B1 + col;
     }
 
     public int getRow() {
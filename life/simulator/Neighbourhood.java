@@ -0,0 +1,148 @@
+package life.simulator;
+
+import life.model.Cell;
+import life.model.CellType;
+
+/**
+ * A reusable buffer holding the living neighbours of one location, together
+ * with a count of those neighbours per cell type. Field fills a caller-supplied
+ * Neighbourhood instead of building new lists, so looking at the neighbours of
+ * a cell does not allocate.
+ *
+ * The contents are only valid until the buffer is filled again.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class Neighbourhood {
+    // The largest number of neighbours a location can have.
+    public static final int MAX_NEIGHBOURS = 8;
+
+    // The living neighbours, in shuffled order.
+    private final Cell[] cells = new Cell[MAX_NEIGHBOURS];
+    private int size;
+
+    // The number of living neighbours of each cell type.
+    private final int[] typeCounts = new int[CellType.values().length];
+
+    // Scratch space used by Field for the adjacent cells.
+    final Cell[] adjacent = new Cell[MAX_NEIGHBOURS];
+
+    /**
+     * Empty the buffer.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            cells[i] = null;
+        }
+        size = 0;
+        for (int i = 0; i < typeCounts.length; i++) {
+            typeCounts[i] = 0;
+        }
+    }
+
+    /**
+     * Add a living neighbour to the buffer.
+     *
+     * @param cell The neighbour to add.
+     */
+    void add(Cell cell) {
+        cells[size++] = cell;
+        typeCounts[cell.getType().ordinal()]++;
+    }
+
+    /**
+     * Swap two neighbours, used when shuffling the buffer.
+     */
+    void swap(int i, int j) {
+        Cell tmp = cells[i];
+        cells[i] = cells[j];
+        cells[j] = tmp;
+    }
+
+    /**
+     * Return the number of living neighbours.
+     *
+     * @return The number of living neighbours.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return one of the living neighbours.
+     *
+     * @param i The position of the neighbour in shuffled order.
+     * @return The neighbour.
+     */
+    public Cell get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Neighbour " + i + " of " + size);
+        }
+        return cells[i];
+    }
+
+    /**
+     * Return the number of living neighbours of the given type.
+     *
+     * @param cellType The type to count.
+     * @return The number of living neighbours of that type.
+     */
+    public int count(CellType cellType) {
+        return typeCounts[cellType.ordinal()];
+    }
+
+    /**
+     * Checks whether any living neighbour has the plague.
+     *
+     * @return true if any living neighbour has the plague
+     */
+    public boolean isAnyInfected() {
+        for (int i = 0; i < size; i++) {
+            if (cells[i].hasPlague()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first neighbour, in shuffled order, whose type is strictly the
+     * most common among the living neighbours.
+     *
+     * @return The most common neighbour, or null if there are no neighbours.
+     */
+    public Cell getMostCommon() {
+        int maxCount = 0;
+        Cell mostCommon = null;
+        for (int i = 0; i < size; i++) {
+            int count = typeCounts[cells[i].getType().ordinal()];
+            if (count > maxCount) {
+                maxCount = count;
+                mostCommon = cells[i];
+            }
+        }
+        return mostCommon;
+    }
+
+    /**
+     * Checks whether more than one type is the most common among the living
+     * neighbours, in which case the shuffled order decides getMostCommon.
+     *
+     * @return true if the most common type is tied
+     */
+    public boolean isMostCommonTied() {
+        int maxCount = 0;
+        int tied = 0;
+        for (int count : typeCounts) {
+            if (count > maxCount) {
+                maxCount = count;
+                tied = 1;
+            } else if (count == maxCount && count > 0) {
+                tied++;
+            }
+        }
+        return tied > 1;
+    }
+}
@@ -0,0 +1,328 @@
+package life.simulator;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a run written by a RunRecorder. Any recorded generation can be
+ * looked at: the field is rebuilt from the nearest keyframe before it, and
+ * the changes of the generations in between are applied. Moving forward from
+ * the generation last looked at only applies the changes in between, so
+ * replaying a run costs little more than reading it.
+ *
+ * If the recorded simulation was started again from generation 0, as when a
+ * new random field is made, only the latest start can be read. A frame cut
+ * short at the end of the file, as left by a recorder that was not closed,
+ * is ignored.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class RunReader implements AutoCloseable {
+    // The size of the header in front of each frame's payload.
+    private static final int FRAME_HEADER_SIZE = 13;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int depth, width;
+    private final Field.Edges edges;
+    private final long seed;
+
+    // The recorded frames in order: their generation, kind and file offset.
+    private int[] generations = new int[64];
+    private byte[] kinds = new byte[64];
+    private long[] offsets = new long[64];
+    private int frames;
+
+    // The field as of the frame last applied, and the records of its
+    // locations.
+    private final Field field;
+    private byte[] records;
+    // The locations that changed in a delta.
+    private int[] changes = new int[0];
+    // The index of the frame last applied, or -1 if none.
+    private int applied = -1;
+
+    private final Inflater inflater = new Inflater();
+    private byte[] compressed = new byte[0];
+    private byte[] raw = new byte[0];
+
+    /**
+     * Open a recording and find its frames.
+     *
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not a recording
+     *                     this version can read.
+     */
+    public RunReader(Path file) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, RunRecorder.HEADER_SIZE);
+            if (header.getInt() != RunRecorder.MAGIC) {
+                throw new IOException("Not a run recording: " + file);
+            }
+            int version = header.getInt();
+            if (version != RunRecorder.VERSION) {
+                throw new IOException("Unsupported recording version " + version + ": " + file);
+            }
+            depth = header.getInt();
+            width = header.getInt();
+            header.getInt();
+            int flags = header.getInt();
+            seed = header.getLong();
+            edges = (flags & FieldSnapshot.TOROIDAL) != 0 ? Field.Edges.TOROIDAL : Field.Edges.BOUNDED;
+            if (depth <= 0 || width <= 0 || (long) depth * width > RunRecorder.MAX_SQUARES || edges == Field.Edges.TOROIDAL && (depth < 3 || width < 3)) {
+                throw new IOException("Corrupt recording: " + file);
+            }
+            findFrames();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        field = new Field(depth, width, seed, edges);
+    }
+
+    /**
+     * Walk the frame headers, skipping the payloads, to index the frames.
+     */
+    private void findFrames() throws IOException {
+        long offset = RunRecorder.HEADER_SIZE;
+        long size = channel.size();
+        while (offset + FRAME_HEADER_SIZE <= size) {
+            ByteBuffer header = read(offset, FRAME_HEADER_SIZE);
+            byte kind = header.get();
+            int generation = header.getInt();
+            header.getInt();
+            int length = header.getInt();
+            if (offset + FRAME_HEADER_SIZE + length > size) {
+                break;
+            }
+            if (kind == RunRecorder.KEYFRAME && frames > 0 && generation <= generations[frames - 1]) {
+                // The simulation was started again.
+                frames = 0;
+            }
+            if (frames == generations.length) {
+                generations = Arrays.copyOf(generations, frames * 2);
+                kinds = Arrays.copyOf(kinds, frames * 2);
+                offsets = Arrays.copyOf(offsets, frames * 2);
+            }
+            generations[frames] = generation;
+            kinds[frames] = kind;
+            offsets[frames] = offset;
+            frames++;
+            offset += FRAME_HEADER_SIZE + length;
+        }
+        if (frames == 0 || kinds[0] != RunRecorder.KEYFRAME) {
+            throw new IOException("Recording has no frames: " + file);
+        }
+    }
+
+    /**
+     * Return the depth of the recorded field.
+     *
+     * @return The depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Return the width of the recorded field.
+     *
+     * @return The width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Return the edges of the recorded field.
+     *
+     * @return The edges.
+     */
+    public Field.Edges getEdges() {
+        return edges;
+    }
+
+    /**
+     * Return the seed of the recorded simulation.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Return the first recorded generation.
+     *
+     * @return The generation.
+     */
+    public int getFirstGeneration() {
+        return generations[0];
+    }
+
+    /**
+     * Return the last recorded generation.
+     *
+     * @return The generation.
+     */
+    public int getLastGeneration() {
+        return generations[frames - 1];
+    }
+
+    /**
+     * Rebuild the field as it was in a recorded generation. The returned
+     * field is reused by the next seek.
+     *
+     * @param generation The generation.
+     * @return The field in that generation.
+     * @throws IllegalArgumentException If the generation was not recorded.
+     * @throws IOException              If the recording cannot be read.
+     */
+    public Field seek(int generation) throws IOException {
+        int target = Arrays.binarySearch(generations, 0, frames, generation);
+        if (target < 0) {
+            throw new IllegalArgumentException("Generation " + generation + " was not recorded.");
+        }
+        int keyframe = target;
+        while (kinds[keyframe] != RunRecorder.KEYFRAME) {
+            keyframe--;
+        }
+        int from = applied >= keyframe && applied <= target ? applied + 1 : keyframe;
+        for (int frame = from; frame <= target; frame++) {
+            apply(frame);
+        }
+        return field;
+    }
+
+    /**
+     * Show a range of recorded generations on a view, one after another.
+     *
+     * @param from The first generation to show.
+     * @param to   The last generation to show.
+     * @param view The view to show them on.
+     * @throws IllegalArgumentException If a generation was not recorded.
+     * @throws IOException              If the recording cannot be read.
+     */
+    public void replay(int from, int to, SimulationView view) throws IOException {
+        for (int generation = from; generation <= to; generation++) {
+            view.showStatus(generation, seek(generation));
+        }
+    }
+
+    /**
+     * Apply one frame to the field.
+     */
+    private void apply(int frame) throws IOException {
+        ByteBuffer header = read(offsets[frame], FRAME_HEADER_SIZE);
+        header.get();
+        header.getInt();
+        int rawLength = header.getInt();
+        int length = header.getInt();
+        ByteBuffer payload = inflate(offsets[frame] + FRAME_HEADER_SIZE, length, rawLength);
+        // The records are read as of the frame's generation.
+        field.setGeneration(generations[frame]);
+
+        if (kinds[frame] == RunRecorder.KEYFRAME) {
+            records = Arrays.copyOf(raw, rawLength);
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            for (int row = 0; row < depth; row++) {
+                for (int col = 0; col < width; col++) {
+                    FieldSnapshot.getRecord(buffer, field, row, col);
+                }
+            }
+        } else {
+            long squares = (long) depth * width;
+            int changed = RunRecorder.getVarint(payload);
+            if (changed < 0 || changed > squares) {
+                throw new IOException("Corrupt frame at " + offsets[frame] + ": " + file);
+            }
+            if (changes.length < changed) {
+                changes = new int[changed];
+            }
+            long index = -1;
+            for (int i = 0; i < changed; i++) {
+                index += (RunRecorder.getVarint(payload) & 0xFFFFFFFFL) + 1;
+                if (index >= squares) {
+                    throw new IOException("Corrupt frame at " + offsets[frame] + ": " + file);
+                }
+                changes[i] = (int) index;
+            }
+            for (int offset = 0; offset < FieldSnapshot.RECORD_SIZE; offset++) {
+                for (int i = 0; i < changed; i++) {
+                    records[changes[i] * FieldSnapshot.RECORD_SIZE + offset] += payload.get();
+                }
+            }
+            for (int i = 0; i < changed; i++) {
+                FieldSnapshot.getRecord(ByteBuffer.wrap(records, changes[i] * FieldSnapshot.RECORD_SIZE,
+                        FieldSnapshot.RECORD_SIZE), field, changes[i] / width, changes[i] % width);
+            }
+        }
+        applied = frame;
+    }
+
+    /**
+     * Read and decompress a payload.
+     */
+    private ByteBuffer inflate(long offset, int length, int rawLength) throws IOException {
+        if (compressed.length < length) {
+            compressed = new byte[length];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        readFully(ByteBuffer.wrap(compressed, 0, length), offset);
+        inflater.reset();
+        inflater.setInput(compressed, 0, length);
+        try {
+            int done = 0;
+            while (done < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, done, rawLength - done);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                done += n;
+            }
+            if (done != rawLength) {
+                throw new IOException("Corrupt frame at " + offset + ": " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt frame at " + offset + ": " + file, e);
+        }
+        return ByteBuffer.wrap(raw, 0, rawLength);
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(buffer, offset);
+        return buffer.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + file);
+            }
+        }
+    }
+
+    /**
+     * Close the recording.
+     *
+     * @throws IOException If closing the file fails.
+     */
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+}
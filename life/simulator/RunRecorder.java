@@ -0,0 +1,393 @@
+package life.simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Records a whole run to a file, generation by generation, so that it can be
+ * looked at again later with a RunReader instead of being simulated again.
+ * The recorder is a view: it records every generation reported to it and
+ * passes it on to the view it wraps.
+ *
+ * Every so often a keyframe holds the record of every location, in the
+ * format of FieldSnapshot; every other generation holds only the records of
+ * the locations that changed. Working out what changed is done on the
+ * simulation thread, since the field is about to change again; compressing
+ * and writing the frames is done on a background thread. At most BUFFER_SIZE
+ * frames wait to be written; the simulation waits when there are more.
+ *
+ * The file starts with a header of the magic number, the version, the depth,
+ * the width, the keyframe interval, a flags int (FieldSnapshot.TOROIDAL, or
+ * 0 for bounded edges) and the seed. Each frame then has a kind
+ * byte, the generation, the raw and compressed payload lengths, and the
+ * deflated payload. A delta payload is a varint count of changed locations,
+ * then for each a varint gap from the previous one, then the byte-wise
+ * differences of their records from the previous generation, first byte of
+ * every record first. Most changes are an energy counting down by one, so the
+ * differences are long runs of the same bytes, which compress far better
+ * than the records themselves.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class RunRecorder implements SimulationView, AutoCloseable {
+    // The first four bytes of a recording, "CRUN".
+    public static final int MAGIC = 0x4352554E;
+    // The version of the format written.
+    public static final int VERSION = 2;
+
+    // The size of the file header in bytes.
+    public static final int HEADER_SIZE = 32;
+
+    // The most bytes in one array, and the most squares a recorded field
+    // can have, since the records of all of them are held in one array.
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    public static final int MAX_SQUARES = MAX_ARRAY_LENGTH / FieldSnapshot.RECORD_SIZE;
+
+    // The kinds of frame.
+    public static final byte KEYFRAME = 0;
+    public static final byte DELTA = 1;
+    // Not a frame: the file header, written as it is.
+    private static final byte HEADER = -1;
+
+    // The default number of generations between keyframes.
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+    // The most frames waiting to be written.
+    public static final int BUFFER_SIZE = 64;
+
+    private static final int RECORD_SIZE = FieldSnapshot.RECORD_SIZE;
+
+    // The view generations are passed on to.
+    private final SimulationView view;
+    private final int keyframeInterval;
+
+    // The records of every location now, and at the last recorded generation.
+    private byte[] current;
+    private byte[] previous;
+    private int depth, width;
+    private Field.Edges edges;
+    // The last generation recorded, or -1 before the first.
+    private int lastGeneration = -1;
+    private int lastKeyframe;
+    // The locations that changed in a delta.
+    private int[] changes = new int[256];
+
+    // The frames waiting for the writer thread.
+    private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+    private final Path file;
+    private final DataOutputStream out;
+    private final Thread writer;
+    // The compression buffer of the writer thread.
+    private byte[] compressed = new byte[1 << 16];
+    // The first failure of the writer thread, reported on the next call.
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Create a recorder writing to a file with the default keyframe interval.
+     *
+     * @param file The file to write, replaced if it exists.
+     * @param view The view to pass each generation on to.
+     * @throws IOException If the file cannot be created.
+     */
+    public RunRecorder(Path file, SimulationView view) throws IOException {
+        this(file, DEFAULT_KEYFRAME_INTERVAL, view);
+    }
+
+    /**
+     * Create a recorder writing to a file.
+     *
+     * @param file             The file to write, replaced if it exists.
+     * @param keyframeInterval The number of generations between keyframes.
+     *                         Seeking is faster and the file larger the
+     *                         shorter it is.
+     * @param view             The view to pass each generation on to.
+     * @throws IOException If the file cannot be created.
+     */
+    public RunRecorder(Path file, int keyframeInterval, SimulationView view) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least one.");
+        }
+        this.file = file;
+        this.keyframeInterval = keyframeInterval;
+        this.view = view;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        writer = new Thread(this::writeFrames, "run-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Record a generation and pass it on.
+     *
+     * @param generation The current generation.
+     * @param field      The field to record.
+     * @throws UncheckedIOException If writing an earlier frame failed.
+     */
+    public void showStatus(int generation, Field field) {
+        record(generation, field);
+        view.showStatus(generation, field);
+    }
+
+    /**
+     * Determine whether the simulation should continue to run, as the wrapped
+     * view decides.
+     */
+    public boolean isViable(Field field) {
+        return view.isViable(field);
+    }
+
+    /**
+     * Work out the frame of a generation and hand it to the writer thread.
+     *
+     * @throws IllegalArgumentException If the field has more than MAX_SQUARES
+     *                                  squares, or its dimensions or edges
+     *                                  changed since the first generation.
+     */
+    private void record(int generation, Field field) {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Recorder is closed.");
+        }
+        if (lastGeneration < 0) {
+            long squares = (long) field.getDepth() * field.getWidth();
+            if (squares > MAX_SQUARES) {
+                throw new IllegalArgumentException("Field is too large to record: " + field.getDepth() + "x"
+                        + field.getWidth() + ", more than " + MAX_SQUARES + " squares.");
+            }
+            depth = field.getDepth();
+            width = field.getWidth();
+            current = new byte[(int) squares * RECORD_SIZE];
+            previous = new byte[current.length];
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(depth).putInt(width)
+                    .putInt(keyframeInterval).putInt(field.getEdges() == Field.Edges.TOROIDAL ? FieldSnapshot.TOROIDAL : 0)
+                    .putLong(field.getSeed());
+            enqueue(new Frame(HEADER, 0, header.array()));
+            edges = field.getEdges();
+        } else if (field.getDepth() != depth || field.getWidth() != width || field.getEdges() != edges) {
+            throw new IllegalArgumentException("Field dimensions or edges changed during recording.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(current);
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                FieldSnapshot.putRecord(buffer, field.getObjectAt(row, col));
+            }
+        }
+
+        // A generation that does not follow on, such as a new random field,
+        // starts again from a keyframe.
+        boolean keyframe = lastGeneration < 0 || generation != lastGeneration + 1
+                || generation - lastKeyframe >= keyframeInterval;
+        byte[] delta = keyframe ? null : delta();
+        if (delta == null) {
+            enqueue(new Frame(KEYFRAME, generation, current.clone()));
+            lastKeyframe = generation;
+        } else {
+            enqueue(new Frame(DELTA, generation, delta));
+        }
+        byte[] swap = previous;
+        previous = current;
+        current = swap;
+        lastGeneration = generation;
+    }
+
+    /**
+     * Encode the records that differ from the last generation.
+     *
+     * @return The payload, or null if so much changed that it would not fit
+     *         in an array, when a keyframe is recorded instead.
+     */
+    private byte[] delta() {
+        // Find the changed locations.
+        int changed = 0;
+        int at = 0;
+        while (at < current.length) {
+            int mismatch = Arrays.mismatch(current, at, current.length, previous, at, previous.length);
+            if (mismatch < 0) {
+                break;
+            }
+            int index = (int) (((long) at + mismatch) / RECORD_SIZE);
+            if (changed == changes.length) {
+                changes = Arrays.copyOf(changes, (int) Math.min(MAX_SQUARES, (long) changed * 2));
+            }
+            changes[changed++] = index;
+            at = (int) ((index + 1L) * RECORD_SIZE);
+        }
+
+        // A varint count, a varint gap of at most five bytes per change, and
+        // the differences of every record.
+        long size = 5 + (long) changed * (5 + RECORD_SIZE);
+        if (size > MAX_ARRAY_LENGTH) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate((int) size);
+        putVarint(payload, changed);
+        int last = -1;
+        for (int i = 0; i < changed; i++) {
+            putVarint(payload, changes[i] - last - 1);
+            last = changes[i];
+        }
+        for (int offset = 0; offset < RECORD_SIZE; offset++) {
+            for (int i = 0; i < changed; i++) {
+                int j = (int) ((long) changes[i] * RECORD_SIZE + offset);
+                payload.put((byte) (current[j] - previous[j]));
+            }
+        }
+        return Arrays.copyOf(payload.array(), payload.position());
+    }
+
+    private void enqueue(Frame frame) {
+        try {
+            queue.put(frame);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recording.", e);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Recording to " + file + " failed.", failure);
+        }
+    }
+
+    /**
+     * Write every waiting frame and close the file.
+     *
+     * @throws IOException If writing failed.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        enqueue(Frame.END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The body of the writer thread: compress and write frames until the end
+     * is reached. After a failure the frames are still taken, and dropped, so
+     * that the simulation never waits for a writer that has stopped.
+     */
+    private void writeFrames() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            while (true) {
+                Frame frame = queue.take();
+                if (frame == Frame.END) {
+                    break;
+                }
+                if (failure == null) {
+                    try {
+                        writeFrame(frame, deflater);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            failure = new IOException("Recorder interrupted.", e);
+        } finally {
+            deflater.end();
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compress and write one frame.
+     */
+    private void writeFrame(Frame frame, Deflater deflater) throws IOException {
+        if (frame.kind == HEADER) {
+            out.write(frame.payload);
+            return;
+        }
+        deflater.reset();
+        deflater.setInput(frame.payload);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                if (length == MAX_ARRAY_LENGTH) {
+                    throw new IOException("Frame of generation " + frame.generation + " is too large to compress.");
+                }
+                compressed = Arrays.copyOf(compressed, (int) Math.min(MAX_ARRAY_LENGTH, length * 2L));
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        out.writeByte(frame.kind);
+        out.writeInt(frame.generation);
+        out.writeInt(frame.payload.length);
+        out.writeInt(length);
+        out.write(compressed, 0, length);
+    }
+
+    /**
+     * Write a value in 7-bit groups, low first, with the top bit set on every
+     * group but the last.
+     */
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read a value written by putVarint.
+     */
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * A frame waiting to be written.
+     */
+    private static class Frame {
+        // Marks the end of the recording.
+        static final Frame END = new Frame(-2, -1, null);
+
+        final byte kind;
+        final int generation;
+        final byte[] payload;
+
+        Frame(int kind, int generation, byte[] payload) {
+            this.kind = (byte) kind;
+            this.generation = generation;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package life.simulator;
+
+/**
+ * A view of a running simulation. The simulator reports every generation to
+ * its view and asks the view whether the simulation is still worth running.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public interface SimulationView {
+    /**
+     * Show the current status of the field.
+     * 
+     * @param generation The current generation.
+     * @param field      The field whose status is to be displayed.
+     */
+    void showStatus(int generation, Field field);
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * 
+     * @param field The field being simulated.
+     * @return true If there is more than one species alive.
+     */
+    boolean isViable(Field field);
+}
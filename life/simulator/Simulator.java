@@ -1,6 +1,12 @@
 package life.simulator;
 
+import java.lang.management.ManagementFactory;
 import java.util.List;
+import java.util.Random;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import life.utils.Randomizer;
 import java.util.ArrayList;
 
@@ -26,6 +32,8 @@ public class Simulator {
   // Default field dimensions.
   private static final int DEFAULT_NUM_COLUMNS = 100;
   private static final int DEFAULT_NUM_ROWS = 80;
+  // The delay a simulation shown in a window starts with, in milliseconds.
+  private static final int DEFAULT_DELAY = 50;
 
   // List of cells in the field.
   private List<Cell> cells;
@@ -36,17 +44,39 @@ public class Simulator {
   // The current generation of the simulation.
   private int generation;
 
-  // A graphical view of the simulation.
-  private SimulatorView view;
+  // The view the simulation reports each generation to.
+  private SimulationView view;
+
+  // The random generator deciding the cells of a new simulation.
+  private Random rand;
+
+  // The time between the starts of generations in milliseconds; 0 runs
+  // the simulation at full speed.
+  private volatile int delay;
+
+  // The thread running a generation loop, either in simulate or as the
+  // simulation thread, or null when none is running. Only one loop runs at
+  // a time; it is set and cleared while holding the lock of this simulator.
+  private volatile Thread loopThread;
+
+  // Set to stop the generation loop at the end of its generation.
+  private volatile boolean stopRequested;
 
-  // The delay between generations in milliseconds.
-  private int delay = 50;
+  // The recent states of the field, to find when it starts repeating.
+  private final CycleDetector cycleDetector = new CycleDetector();
 
-  // Flag indicating whether the simulation is running.
-  private boolean isRunning;
+  // Whether to stop running once the field is found to repeat.
+  private volatile boolean stopOnCycle;
 
-  // The thread for running the simulation.
-  private Thread simulationThread;
+  // The timings of each generation, or null when not instrumented.
+  private volatile Instrumentation instrumentation =
+      Boolean.getBoolean("life.instrument") ? new Instrumentation() : null;
+
+  // The bean each generation is published to, or null when not registered.
+  private volatile SimulatorManagement management;
+
+  // The name the bean is registered under, or null.
+  private ObjectName managementName;
 
   /**
    * Execute simulation
@@ -73,18 +103,98 @@ public class Simulator {
    *                                  zero.
    */
   public Simulator(int numRows, int numColumns) {
+    checkDimensions(numRows, numColumns);
+    field = new Field(numRows, numColumns);
+    rand = Randomizer.getRandom();
+    delay = DEFAULT_DELAY;
+
+    // Create a view of the state of each location in the field.
+    setUp(new SimulatorView(numRows, numColumns, this));
+  }
+
+  /**
+   * Creates a new Simulator object reporting to the given view, with all of
+   * its randomness derived from the given seed. No window is opened unless
+   * the view opens one, and the simulation runs at full speed until a delay
+   * is set.
+   *
+   * @param numRows    The number of rows in the field.
+   * @param numColumns The number of columns in the field.
+   * @param seed       The seed of the simulation.
+   * @param view       The view to report each generation to.
+   * @throws IllegalArgumentException If the dimensions are less than or equal to
+   *                                  zero.
+   */
+  public Simulator(int numRows, int numColumns, long seed, SimulationView view) {
+    this(numRows, numColumns, seed, Field.Edges.BOUNDED, view);
+  }
+
+  /**
+   * Creates a new Simulator object reporting to the given view, on a field
+   * with the given edges.
+   *
+   * @param numRows    The number of rows in the field.
+   * @param numColumns The number of columns in the field.
+   * @param seed       The seed of the simulation.
+   * @param edges      What lies beyond the edges of the field.
+   * @param view       The view to report each generation to.
+   * @throws IllegalArgumentException If the dimensions are less than or equal to
+   *                                  zero, or too small for the edges.
+   */
+  public Simulator(int numRows, int numColumns, long seed, Field.Edges edges, SimulationView view) {
+    checkDimensions(numRows, numColumns);
+    field = new Field(numRows, numColumns, seed, edges);
+    rand = new Random(seed);
+    setUp(view);
+  }
+
+  /**
+   * Creates a new Simulator object carrying on with an existing field, such as
+   * one loaded from a snapshot, from the generation the field is in.
+   *
+   * @param field The field to simulate.
+   * @param view  The view to report each generation to.
+   */
+  public Simulator(Field field, SimulationView view) {
+    this.field = field;
+    this.view = view;
+    rand = new Random(field.getSeed());
+    generation = field.getGeneration();
+    cells = new ArrayList<>();
+    for (int row = 0; row < field.getDepth(); row++) {
+      for (int col = 0; col < field.getWidth(); col++) {
+        Cell cell = field.getObjectAt(row, col);
+        if (cell != null) {
+          cells.add(cell);
+        }
+      }
+    }
+    startHistory();
+
+    // Display the initial status.
+    view.showStatus(generation, field);
+  }
+
+  /**
+   * Rejects field dimensions that are less than or equal to zero.
+   */
+  private static void checkDimensions(int numRows, int numColumns) {
     if (numRows <= 0 || numColumns <= 0) {
       throw new IllegalArgumentException("Dimensions must be greater than zero.");
     }
+  }
 
+  /**
+   * Populates the field and shows the initial status on the given view.
+   *
+   * @param view The view to report each generation to.
+   */
+  private void setUp(SimulationView view) {
+    this.view = view;
     cells = new ArrayList<>();
-    field = new Field(numRows, numColumns);
-
-    // Create a view of the state of each location in the field.
-    view = new SimulatorView(numRows, numColumns, this);
 
     // Create a new CellFactory and populate the field with cells.
-    CellFactory cellFactory = new CellFactory(Randomizer.getRandom());
+    CellFactory cellFactory = new CellFactory(rand);
     populate(cellFactory);
 
     // Display the initial status.
@@ -93,48 +203,274 @@ public class Simulator {
 
   /**
    * Starts simulation by creating a new thread that runs a while loop until the
-   * simulation is stopped or the field becomes unviable.
+   * simulation is stopped or the field becomes unviable, or repeats when
+   * stopping on a cycle. Generations start
+   * every delay milliseconds, however long each one takes, and as fast as
+   * possible when the delay is 0. The view only copies each generation, so
+   * slow drawing does not hold the simulation back.
+   *
+   * @throws IllegalStateException If the simulation is already running.
    */
   public void startSimulation() {
-    isRunning = true;
-    simulationThread = new Thread(() -> {
-      while (isRunning && view.isViable(field)) {
-        simOneGeneration();
-        delay(delay);
+    Thread thread = new Thread(() -> {
+      try {
+        runGenerations(Integer.MAX_VALUE);
+      } finally {
+        endLoop();
       }
     });
-    simulationThread.start();
+    beginLoop(thread);
+    thread.start();
+  }
+
+  /**
+   * Stops the running generation loop, whether it is the simulation thread
+   * or a call to simulate, and waits for it to finish its generation. Does
+   * nothing if the simulation is not running.
+   */
+  public synchronized void stopSimulation() {
+    if (loopThread == null) {
+      return;
+    }
+    stopRequested = true;
+    notifyAll();
+    // The loop may stop itself, as from its view, without waiting.
+    while (loopThread != null && loopThread != Thread.currentThread()) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Claims the generation loop for a thread.
+   *
+   * @throws IllegalStateException If another loop is running.
+   */
+  private synchronized void beginLoop(Thread thread) {
+    if (loopThread != null) {
+      throw new IllegalStateException("The simulation is already running.");
+    }
+    stopRequested = false;
+    loopThread = thread;
   }
 
   /**
-   * Stops simulation by interrupting the thread.
+   * Releases the generation loop, waking anyone waiting for it to stop.
    */
-  public void stopSimulation() {
-    isRunning = false;
-    if (simulationThread != null) {
-      simulationThread.interrupt();
-      simulationThread = null;
+  private synchronized void endLoop() {
+    loopThread = null;
+    notifyAll();
+  }
+
+  /**
+   * Runs generations until the given number have run, the loop is stopped,
+   * or the field is no longer worth running, starting them every delay
+   * milliseconds.
+   *
+   * @return The number of generations simulated.
+   */
+  private int runGenerations(int numGenerations) {
+    int simulated = 0;
+    long nextStart = System.nanoTime();
+    while (simulated < numGenerations && !stopRequested && isWorthRunning()) {
+      nextGeneration();
+      simulated++;
+      if (simulated == numGenerations) {
+        break;
+      }
+      nextStart += delay * 1_000_000L;
+      long wait = nextStart - System.nanoTime();
+      if (wait > 0) {
+        delay((int) ((wait + 999_999) / 1_000_000));
+      } else {
+        // Running behind; do not try to catch up.
+        nextStart = System.nanoTime();
+      }
     }
+    return simulated;
   }
 
   /**
    * Generate random simulation by populating the field with random cells.
+   *
+   * @throws IllegalStateException If a generation loop is running on another
+   *                               thread.
    */
   public void generateRandomSimulation() {
-    CellFactory cellFactory = new CellFactory(Randomizer.getRandom());
+    if (loopThread == Thread.currentThread()) {
+      repopulate();
+      return;
+    }
+    beginLoop(Thread.currentThread());
+    try {
+      repopulate();
+    } finally {
+      endLoop();
+    }
+  }
+
+  /**
+   * Populates the field afresh from generation 0 and shows it.
+   */
+  private void repopulate() {
+    CellFactory cellFactory = new CellFactory(rand);
     generation = 0;
+    field.setGeneration(generation);
     populate(cellFactory);
     view.showStatus(generation, field);
+    publish();
   }
 
   /**
    * Simulates one generation of cells.
+   *
+   * @throws IllegalStateException If a generation loop is running on another
+   *                               thread.
    */
   public void simOneGeneration() {
+    // The loop's own generations, and steps from its view, are already
+    // claimed; a standalone step claims the loop for its generation.
+    if (loopThread == Thread.currentThread()) {
+      nextGeneration();
+      return;
+    }
+    beginLoop(Thread.currentThread());
+    try {
+      nextGeneration();
+    } finally {
+      endLoop();
+    }
+  }
+
+  /**
+   * Simulates one generation of cells on the thread holding the loop.
+   */
+  private void nextGeneration() {
+    // Read once, so a generation is timed either whole or not at all.
+    Instrumentation timings = instrumentation;
+    if (timings != null) {
+      timings.startGeneration();
+    }
     generation++;
+    field.setGeneration(generation);
     cells.forEach(cell -> cell.act());
+    if (timings != null) {
+      timings.endPhase(Instrumentation.Phase.ACT);
+    }
     cells.forEach(Cell::updateState);
+    if (timings != null) {
+      timings.endPhase(Instrumentation.Phase.UPDATE);
+    }
+    cycleDetector.record(generation, field.getStateHash(), field.isDeterministic());
+    if (timings != null) {
+      timings.endPhase(Instrumentation.Phase.STATS);
+    }
     view.showStatus(generation, field);
+    if (timings != null) {
+      timings.endPhase(Instrumentation.Phase.RENDER);
+      timings.endGeneration(generation, field.getStats());
+    }
+    publish();
+  }
+
+  /**
+   * Publishes the generation to the management bean, if one is registered.
+   */
+  private void publish() {
+    SimulatorManagement bean = management;
+    if (bean != null) {
+      bean.publish(generation, field.getStats(), cells.size());
+    }
+  }
+
+  /**
+   * Registers a SimulatorMXBean for this simulation with the platform MBean
+   * server, as life.simulator:type=Simulator,name=the given name, so that it
+   * can be watched and steered over JMX. From then on each generation
+   * publishes a snapshot of its populations for the bean to read.
+   *
+   * @param name The name to tell this simulation apart from others.
+   * @return The name the bean is registered under.
+   * @throws JMException If the bean cannot be registered, for example
+   *                     because the name is taken.
+   */
+  public synchronized ObjectName registerMBean(String name) throws JMException {
+    if (managementName != null) {
+      throw new IllegalStateException("Already registered as " + managementName + ".");
+    }
+    ObjectName objectName = new ObjectName("life.simulator:type=Simulator,name=" + ObjectName.quote(name));
+    SimulatorManagement bean = new SimulatorManagement(this);
+    bean.publish(generation, field.getStats(), cells.size());
+    ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+    management = bean;
+    managementName = objectName;
+    return objectName;
+  }
+
+  /**
+   * Unregisters the bean registered by registerMBean, if there is one.
+   *
+   * @throws JMException If the bean cannot be unregistered.
+   */
+  public synchronized void unregisterMBean() throws JMException {
+    if (managementName != null) {
+      management = null;
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(managementName);
+      managementName = null;
+    }
+  }
+
+  /**
+   * Starts or stops timing each generation. Instrumentation starts on if the
+   * life.instrument system property is true. While it is off, generations
+   * run without any timing at all.
+   *
+   * @param instrumented true to time each generation.
+   */
+  public void setInstrumented(boolean instrumented) {
+    if (instrumented != (instrumentation != null)) {
+      instrumentation = instrumented ? new Instrumentation() : null;
+    }
+  }
+
+  /**
+   * Returns the timings of the generations since instrumentation was last
+   * turned on.
+   *
+   * @return The timings, or null if the simulation is not instrumented.
+   */
+  public Instrumentation getInstrumentation() {
+    return instrumentation;
+  }
+
+  /**
+   * Simulates generations on the calling thread until the given number have
+   * run, the field is no longer viable, or repeats when stopping on a cycle,
+   * or the simulation is stopped. Generations start every delay
+   * milliseconds, as on the simulation thread.
+   *
+   * @param numGenerations The number of generations to simulate.
+   * @return The number of generations actually simulated.
+   * @throws IllegalStateException If the simulation is already running.
+   */
+  public int simulate(int numGenerations) {
+    beginLoop(Thread.currentThread());
+    try {
+      return runGenerations(numGenerations);
+    } finally {
+      endLoop();
+    }
+  }
+
+  /**
+   * Checks whether another generation could show anything new.
+   */
+  private boolean isWorthRunning() {
+    return view.isViable(field) && !(stopOnCycle && cycleDetector.getPeriod() > 0);
   }
 
   /**
@@ -144,6 +480,7 @@ public class Simulator {
    */
   private void populate(CellFactory cellFactory) {
     field.clear();
+    cells.clear();
     // Loop through each row and column of the field.
     for (int row = 0; row < field.getDepth(); row++) {
       for (int col = 0; col < field.getWidth(); col++) {
@@ -156,27 +493,105 @@ public class Simulator {
         cells.add(cell);
       }
     }
+    startHistory();
+  }
+
+  /**
+   * Forgets the states of earlier fields, starting from the current one. In
+   * generation 0 the cells have not chosen a next state yet, which the state
+   * hash leaves out, so a later field with the same hash need not go on the
+   * same way; the history then starts with generation 1.
+   */
+  private void startHistory() {
+    cycleDetector.reset();
+    if (generation > 0) {
+      cycleDetector.record(generation, field.getStateHash(), true);
+    }
+  }
+
+  /**
+   * Returns the current generation of the simulation.
+   *
+   * @return The current generation.
+   */
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the field being simulated.
+   *
+   * @return The field.
+   */
+  public Field getField() {
+    return field;
   }
 
   /**
-   * Sets the delay time between each generation.
+   * Returns the period of the cycle the field has settled into. Only cycles
+   * that no random draw can break are reported.
+   *
+   * @return The period in generations, 1 for a still life, or 0 if the field
+   *         has not been found to repeat.
+   */
+  public int getCyclePeriod() {
+    return cycleDetector.getPeriod();
+  }
+
+  /**
+   * Sets whether the simulation stops once the field is found to repeat.
+   *
+   * @param stopOnCycle true to stop on a cycle.
+   */
+  public void setStopOnCycle(boolean stopOnCycle) {
+    this.stopOnCycle = stopOnCycle;
+  }
+
+  /**
+   * Returns the time between the starts of generations.
+   *
+   * @return The time in milliseconds, or 0 when running at full speed.
+   */
+  public int getDelay() {
+    return delay;
+  }
+
+  /**
+   * Checks whether generations are being run, on the simulation thread or
+   * by simulate.
+   *
+   * @return true until the simulation is stopped or stops by itself.
+   */
+  public boolean isRunning() {
+    return loopThread != null;
+  }
+
+  /**
+   * Sets the time between the starts of generations.
    * 
-   * @param delay The time to pause for in milliseconds
+   * @param delay The time in milliseconds, or 0 to run at full speed
    */
   public void setDelay(int delay) {
     this.delay = delay;
   }
 
   /**
-   * Pauses the simulation thread for the given number of milliseconds
+   * Pauses the generation loop for the given number of milliseconds, or
+   * until it is stopped
    * 
    * @param millisec The time to pause for in milliseconds
    */
-  private void delay(int millisec) {
+  private synchronized void delay(int millisec) {
+    // Stopping the simulation wakes it early.
+    if (millisec <= 0 || stopRequested) {
+      return;
+    }
     try {
-      Thread.sleep(millisec);
+      wait(millisec);
     } catch (InterruptedException ie) {
-      // wake up
+      // Stop, and let the caller see the interrupt.
+      stopRequested = true;
+      Thread.currentThread().interrupt();
     }
   }
 }
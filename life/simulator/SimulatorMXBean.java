@@ -0,0 +1,95 @@
+package life.simulator;
+
+import java.util.Map;
+
+/**
+ * The management interface of a running Simulator, for watching and steering
+ * it over JMX without its window, for example from JConsole or VisualVM.
+ * Every reading comes from the last published generation, so polling never
+ * waits for the simulation thread.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public interface SimulatorMXBean {
+    /**
+     * Return the last generation simulated.
+     */
+    int getGeneration();
+
+    /**
+     * Return the number of generations simulated per second over the last
+     * second or so, or 0 if the simulation is not running.
+     */
+    double getGenerationsPerSecond();
+
+    /**
+     * Return the number of living cells of each type, by type name.
+     */
+    Map<String, Integer> getPopulations();
+
+    /**
+     * Return the number of living cells that have the plague.
+     */
+    int getPlagued();
+
+    /**
+     * Return the heap in use by the whole JVM, in bytes, divided by the
+     * number of cells in the field.
+     */
+    double getHeapUsedPerCell();
+
+    /**
+     * Check whether generations are being run, on the simulation thread or
+     * by a caller of Simulator.simulate.
+     */
+    boolean isRunning();
+
+    /**
+     * Return the time between the starts of generations in milliseconds.
+     */
+    int getDelay();
+
+    /**
+     * Set the time between the starts of generations in milliseconds, or 0
+     * to run at full speed.
+     */
+    void setDelay(int delay);
+
+    /**
+     * Check whether each generation is timed.
+     */
+    boolean isInstrumented();
+
+    /**
+     * Start or stop timing each generation.
+     */
+    void setInstrumented(boolean instrumented);
+
+    /**
+     * Describe the share of the time taken by each phase of a generation, or
+     * return an empty string if the simulation is not instrumented.
+     */
+    String getInstrumentationSummary();
+
+    /**
+     * Start the simulation thread, if the simulation is not running.
+     */
+    void start();
+
+    /**
+     * Stop the running simulation, and wait for it to finish its generation.
+     */
+    void stop();
+
+    /**
+     * Simulate generations on the calling thread, at the set delay, while
+     * the simulation is stopped.
+     *
+     * @param generations The number of generations to simulate.
+     * @return The number of generations actually simulated.
+     * @throws IllegalStateException If the simulation is running.
+     */
+    int step(int generations);
+}
@@ -0,0 +1,163 @@
+package life.simulator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import life.model.CellType;
+
+/**
+ * Exposes a Simulator as a SimulatorMXBean. At the end of every generation
+ * the simulator publishes an immutable snapshot of it through a volatile
+ * field, and every reading is taken from the latest snapshot, so readers
+ * never lock anything the simulation thread uses. A simulator with no bean
+ * registered publishes nothing.
+ *
+ * The simulator runs one generation loop at a time, whether started here,
+ * from its window or by simulate, and a single step or a new random field
+ * holds the loop while it lasts. A step or start is refused while any loop
+ * runs, and a stop stops whichever loop it is. The operations do not
+ * lock the bean, since a stop waits for a generation that publishes here.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class SimulatorManagement implements SimulatorMXBean {
+    private static final CellType[] TYPES = CellType.values();
+    // The shortest time over which the generation rate is measured.
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    private final Simulator simulator;
+    private volatile Snapshot snapshot;
+
+    // The start of the current rate window and the rate measured over the
+    // last one, written only while publishing.
+    private long windowNanos;
+    private int windowGeneration;
+    private double rate;
+
+    /**
+     * Manage the given simulator.
+     *
+     * @param simulator The simulator.
+     */
+    SimulatorManagement(Simulator simulator) {
+        this.simulator = simulator;
+    }
+
+    /**
+     * Publish the state of a generation. Called by the thread simulating it.
+     *
+     * @param generation The generation.
+     * @param stats      The statistics of the field at the end of it.
+     * @param cells      The number of cells in the field.
+     */
+    synchronized void publish(int generation, FieldStats stats, int cells) {
+        long now = System.nanoTime();
+        Snapshot last = snapshot;
+        if (last == null || generation < windowGeneration) {
+            windowNanos = now;
+            windowGeneration = generation;
+            rate = 0;
+        } else if (now - windowNanos >= RATE_WINDOW_NANOS) {
+            rate = (generation - windowGeneration) * 1e9 / (now - windowNanos);
+            windowNanos = now;
+            windowGeneration = generation;
+        }
+        snapshot = new Snapshot(generation, rate, Instrumentation.population(stats), stats.getPlaguedTotal(), cells);
+    }
+
+    public int getGeneration() {
+        return snapshot.generation;
+    }
+
+    public double getGenerationsPerSecond() {
+        return simulator.isRunning() ? snapshot.rate : 0;
+    }
+
+    public Map<String, Integer> getPopulations() {
+        int[] populations = snapshot.populations;
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        for (CellType cellType : TYPES) {
+            byName.put(cellType.name(), populations[cellType.ordinal()]);
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+
+    public int getPlagued() {
+        return snapshot.plagued;
+    }
+
+    public double getHeapUsedPerCell() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        int cells = snapshot.cells;
+        return cells > 0 ? (double) used / cells : 0;
+    }
+
+    public boolean isRunning() {
+        return simulator.isRunning();
+    }
+
+    public int getDelay() {
+        return simulator.getDelay();
+    }
+
+    public void setDelay(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("The delay cannot be negative.");
+        }
+        simulator.setDelay(delay);
+    }
+
+    public boolean isInstrumented() {
+        return simulator.getInstrumentation() != null;
+    }
+
+    public void setInstrumented(boolean instrumented) {
+        simulator.setInstrumented(instrumented);
+    }
+
+    public String getInstrumentationSummary() {
+        Instrumentation instrumentation = simulator.getInstrumentation();
+        return instrumentation != null ? instrumentation.getSummary() : "";
+    }
+
+    public void start() {
+        if (!simulator.isRunning()) {
+            simulator.startSimulation();
+        }
+    }
+
+    public void stop() {
+        simulator.stopSimulation();
+    }
+
+    public int step(int generations) {
+        try {
+            return simulator.simulate(generations);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Stop the simulation before stepping it.", e);
+        }
+    }
+
+    /**
+     * The state of the field at the end of one generation.
+     */
+    private static class Snapshot {
+        private final int generation;
+        private final double rate;
+        private final int[] populations;
+        private final int plagued;
+        private final int cells;
+
+        private Snapshot(int generation, double rate, int[] populations, int plagued, int cells) {
+            this.generation = generation;
+            this.rate = rate;
+            this.populations = populations;
+            this.plagued = plagued;
+            this.cells = cells;
+        }
+    }
+}
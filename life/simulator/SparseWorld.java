@@ -0,0 +1,633 @@
+package life.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.model.CellType;
+import life.model.cells.Photobacterium;
+import life.utils.CounterRandom;
+import life.utils.Palette;
+
+/**
+ * A field that only holds cells where something is happening, so it can be
+ * far larger than memory would allow for a Field: up to Integer.MAX_VALUE
+ * squares each way. Small colonies are seeded into it, and memory and the
+ * time of a generation follow the area they spread over.
+ *
+ * The field is divided into square chunks of CHUNK_SIZE squares. A chunk is
+ * held, as a window Field of real cells, while it has living cells or is
+ * next to a chunk that has. Every other square is background: a dead cell
+ * of a type drawn from the seed and its location. A dead cell with no living
+ * neighbours settles into a fixed state after acting once (its energy
+ * reset, without plague, Escherichia in their default colour and Pseudomonas
+ * without one), except that a dead Wolbachia's energy keeps counting down.
+ * The background is in that state in every generation after the first, so a
+ * chunk is only made when life comes near it, in the state it would have
+ * reached by then.
+ *
+ * A chunk that has acted for a whole generation without any life in or
+ * around it has settled, and is dropped. The few squares that differ from
+ * the background, such as a Photobacterium that kept the colour it last had
+ * while alive, are kept as its remains and restored if the chunk is made
+ * again. A dead Wolbachia whose energy is zero or below counts as matching,
+ * since its energy can then never reach zero again; this is the only way a
+ * square can differ from the same square of a Field.
+ *
+ * The cells act in row-major order across all chunks, so the field behaves
+ * exactly as a Field of the same size and contents.
+ *
+ * Usage: SparseWorld [--colony size] [rows] [columns] [generations] [seed]
+ *
+ * runs a square colony, populated as a Simulator populates a field, in the
+ * middle of a field of the given size.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class SparseWorld {
+    // The width and height of a chunk, in squares.
+    public static final int CHUNK_SIZE = 32;
+
+    // A stream no cell draws from, whose draws choose the background types.
+    private static final int BACKGROUND_STREAM = 5;
+
+    private static final CellType[] TYPES = CellType.values();
+
+    // Defaults for arguments that are not given.
+    private static final int DEFAULT_COLONY_SIZE = 64;
+    private static final int DEFAULT_NUM_ROWS = 1_000_000_000;
+    private static final int DEFAULT_NUM_COLUMNS = 1_000_000_000;
+    private static final int DEFAULT_NUM_GENERATIONS = 1000;
+    private static final long DEFAULT_SEED = 1111;
+
+    private final int depth, width;
+    private final long seed;
+
+    // The chunks held, and the remains of dropped chunks that differed from
+    // the background, by chunk key.
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+    private final Map<Long, Remains> remains = new HashMap<>();
+
+    // Chooses the types of the background squares.
+    private final CounterRandom backgroundRandom;
+    private final CellFactory backgroundFactory;
+
+    // The number of generations simulated.
+    private int generation;
+
+    // The last chunk made only to look at a square, until the field changes.
+    private Chunk peeked;
+
+    // The population of the whole field.
+    private final FieldStats stats = new FieldStats();
+
+    /**
+     * Create a field of the given dimensions holding only background.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param seed  The seed all random draws in the field are derived from.
+     */
+    public SparseWorld(int depth, int width, long seed) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Dimensions must be greater than zero.");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        backgroundRandom = new CounterRandom(seed);
+        backgroundFactory = new CellFactory(backgroundRandom);
+    }
+
+    /**
+     * Fill a rectangle with new cells chosen by a factory, row by row, as
+     * Simulator.populate fills a whole field.
+     *
+     * @param top         The first row of the colony.
+     * @param left        The first column of the colony.
+     * @param rows        The number of rows of the colony.
+     * @param cols        The number of columns of the colony.
+     * @param cellFactory The factory deciding each cell's type and state.
+     */
+    public void seed(int top, int left, int rows, int cols, CellFactory cellFactory) {
+        if (top < 0 || left < 0 || rows < 0 || cols < 0 || rows > depth - top || cols > width - left) {
+            throw new IllegalArgumentException("Colony is outside the field.");
+        }
+        List<Chunk> seeded = new ArrayList<>();
+        for (int row = top; row < top + rows; row++) {
+            for (int col = left; col < left + cols; col++) {
+                Chunk chunk = chunkAt(row, col, true);
+                Cell cell = cellFactory.createCell(chunk.field, new Location(row, col));
+                if (!cellFactory.isAlive()) {
+                    cell.setDead();
+                }
+                chunk.cells[chunk.indexOf(row, col)] = cell;
+                if (!seeded.contains(chunk)) {
+                    seeded.add(chunk);
+                }
+            }
+        }
+        // The new cells replace those the neighbouring chunks linked to.
+        for (Chunk chunk : seeded) {
+            linkAround(chunk);
+        }
+        grow();
+        countPopulation();
+        peeked = null;
+    }
+
+    /**
+     * Simulate one generation: every cell of every chunk acts, in row-major
+     * order, then all of them switch to their next state. Chunks are then
+     * made around any new life and dropped where it has gone.
+     */
+    public void step() {
+        generation++;
+        List<Chunk> order = new ArrayList<>(chunks.values());
+        order.sort(Comparator.comparingLong(chunk -> chunk.key));
+        for (Chunk chunk : order) {
+            chunk.field.setGeneration(generation);
+            chunk.quiet = !isNearLife(chunk);
+        }
+
+        // Act on each band of chunks a row at a time, so that the cells act in
+        // the same order as in a Field.
+        int band = 0;
+        while (band < order.size()) {
+            int end = band;
+            while (end < order.size() && order.get(end).chunkRow == order.get(band).chunkRow) {
+                end++;
+            }
+            for (int r = 0; r < order.get(band).rows; r++) {
+                for (int i = band; i < end; i++) {
+                    Chunk chunk = order.get(i);
+                    for (int index = r * chunk.cols; index < (r + 1) * chunk.cols; index++) {
+                        chunk.cells[index].act();
+                    }
+                }
+            }
+            band = end;
+        }
+        for (Chunk chunk : order) {
+            for (Cell cell : chunk.cells) {
+                cell.updateState();
+            }
+        }
+
+        grow();
+        for (Chunk chunk : order) {
+            if (chunk.quiet && !isNearLife(chunk)) {
+                drop(chunk);
+            }
+        }
+        countPopulation();
+        peeked = null;
+    }
+
+    /**
+     * Simulate generations until the given number have run or nothing is
+     * left alive.
+     *
+     * @param numGenerations The number of generations to simulate.
+     * @return The number of generations actually simulated.
+     */
+    public int simulate(int numGenerations) {
+        int simulated = 0;
+        while (simulated < numGenerations && stats.isViable(null)) {
+            step();
+            simulated++;
+        }
+        return simulated;
+    }
+
+    /**
+     * Make every chunk next to a chunk with living cells.
+     */
+    private void grow() {
+        for (Chunk chunk : new ArrayList<>(chunks.values())) {
+            if (chunk.living() > 0) {
+                for (int chunkRow = chunk.chunkRow - 1; chunkRow <= chunk.chunkRow + 1; chunkRow++) {
+                    for (int chunkCol = chunk.chunkCol - 1; chunkCol <= chunk.chunkCol + 1; chunkCol++) {
+                        if (chunkRow >= 0 && chunkRow * (long) CHUNK_SIZE < depth
+                                && chunkCol >= 0 && chunkCol * (long) CHUNK_SIZE < width) {
+                            chunkAt(chunkRow * CHUNK_SIZE, chunkCol * CHUNK_SIZE, true);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a chunk or any chunk next to it has living cells.
+     */
+    private boolean isNearLife(Chunk chunk) {
+        for (int chunkRow = chunk.chunkRow - 1; chunkRow <= chunk.chunkRow + 1; chunkRow++) {
+            for (int chunkCol = chunk.chunkCol - 1; chunkCol <= chunk.chunkCol + 1; chunkCol++) {
+                Chunk neighbour = chunks.get(key(chunkRow, chunkCol));
+                if (neighbour != null && neighbour.living() > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add up the populations of the chunks.
+     */
+    private void countPopulation() {
+        stats.reset();
+        for (Chunk chunk : chunks.values()) {
+            FieldStats chunkStats = chunk.field.getStats();
+            for (CellType cellType : TYPES) {
+                stats.add(cellType, chunkStats.getPopulation(cellType), chunkStats.getPlagued(cellType));
+            }
+        }
+    }
+
+    /**
+     * Return the chunk holding a square, making it if asked.
+     *
+     * @return The chunk, or null if it is not held and was not to be made.
+     */
+    private Chunk chunkAt(int row, int col, boolean make) {
+        int chunkRow = row / CHUNK_SIZE;
+        int chunkCol = col / CHUNK_SIZE;
+        long key = key(chunkRow, chunkCol);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null && make) {
+            chunk = new Chunk(chunkRow, chunkCol);
+            chunks.put(key, chunk);
+            linkAround(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Drop a settled chunk, keeping the squares that differ from the
+     * background.
+     */
+    private void drop(Chunk chunk) {
+        Remains left = new Remains(generation);
+        for (int index = 0; index < chunk.cells.length; index++) {
+            Cell cell = chunk.cells[index];
+            int row = chunk.firstRow + index / chunk.cols;
+            int col = chunk.firstCol + index % chunk.cols;
+            CellType type = backgroundType(row, col);
+            boolean matches = cell.getType() == type && cell.getColor() == backgroundColour(type, row, col)
+                    && (cell.getEnergyLeft() == backgroundEnergy(type)
+                            || (type == CellType.WOLBACHIA && cell.getEnergyLeft() <= 0
+                                    && backgroundEnergy(type) <= 0));
+            if (!matches) {
+                left.add(index, cell);
+            }
+        }
+        chunks.remove(chunk.key);
+        if (left.size > 0) {
+            remains.put(chunk.key, left);
+        }
+        for (int chunkRow = chunk.chunkRow - 1; chunkRow <= chunk.chunkRow + 1; chunkRow++) {
+            for (int chunkCol = chunk.chunkCol - 1; chunkCol <= chunk.chunkCol + 1; chunkCol++) {
+                Chunk neighbour = chunks.get(key(chunkRow, chunkCol));
+                if (neighbour != null) {
+                    link(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Link the borders of a chunk and the chunks around it to each other.
+     */
+    private void linkAround(Chunk chunk) {
+        link(chunk);
+        for (int chunkRow = chunk.chunkRow - 1; chunkRow <= chunk.chunkRow + 1; chunkRow++) {
+            for (int chunkCol = chunk.chunkCol - 1; chunkCol <= chunk.chunkCol + 1; chunkCol++) {
+                Chunk neighbour = chunks.get(key(chunkRow, chunkCol));
+                if (neighbour != null && neighbour != chunk) {
+                    link(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Point every location of a chunk's border at the cell of the chunk that
+     * holds it, or at nothing.
+     */
+    private void link(Chunk chunk) {
+        int top = chunk.firstRow - 1;
+        int bottom = chunk.firstRow + chunk.rows;
+        int left = chunk.firstCol - 1;
+        int right = chunk.firstCol + chunk.cols;
+        for (int row = top; row <= bottom; row++) {
+            boolean edgeRow = row == top || row == bottom;
+            for (int col = left; col <= right; col += edgeRow ? 1 : right - left) {
+                if (row >= 0 && row < depth && col >= 0 && col < width) {
+                    Chunk owner = chunkAt(row, col, false);
+                    chunk.field.setNeighbouringCell(row, col,
+                            owner != null ? owner.cells[owner.indexOf(row, col)] : null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the type of the background cell of a square.
+     */
+    private CellType backgroundType(int row, int col) {
+        backgroundRandom.position(0, row, col, BACKGROUND_STREAM);
+        return backgroundFactory.nextCellType();
+    }
+
+    /**
+     * Return the energy of a background cell of a type in the current
+     * generation.
+     */
+    private int backgroundEnergy(CellType type) {
+        if (type == CellType.WOLBACHIA) {
+            return (int) Math.max(Integer.MIN_VALUE, (long) type.getMaxEnergy() - generation);
+        }
+        return type.getMaxEnergy();
+    }
+
+    /**
+     * Return the colour of the background cell of a square, of the given
+     * type, in the current generation.
+     */
+    private int backgroundColour(CellType type, int row, int col) {
+        if (type == CellType.PHOTOBACTERIUM) {
+            return Photobacterium.randomColor(backgroundRandom.position(0, row, col, Field.COLOUR_STREAM));
+        }
+        if (type == CellType.PSEUDOMONAS && generation > 0) {
+            return Palette.NONE;
+        }
+        return type.getInitialColor();
+    }
+
+    private static long key(int chunkRow, int chunkCol) {
+        return ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Return the cell of a square, as it is held or as it would be made.
+     */
+    private Cell cellAt(int row, int col) {
+        if (row < 0 || row >= depth || col < 0 || col >= width) {
+            throw new ArrayIndexOutOfBoundsException("Location " + row + "," + col + " is outside the field.");
+        }
+        Chunk chunk = chunkAt(row, col, false);
+        if (chunk == null) {
+            // Make the chunk to look at, without keeping it.
+            if (peeked == null || peeked.key != key(row / CHUNK_SIZE, col / CHUNK_SIZE)) {
+                peeked = new Chunk(row / CHUNK_SIZE, col / CHUNK_SIZE);
+            }
+            chunk = peeked;
+        }
+        return chunk.cells[chunk.indexOf(row, col)];
+    }
+
+    /**
+     * Check whether the cell at the given position is alive.
+     */
+    public boolean isAlive(int row, int col) {
+        return cellAt(row, col).isAlive();
+    }
+
+    /**
+     * Return the type of the cell at the given position.
+     */
+    public CellType getType(int row, int col) {
+        return cellAt(row, col).getType();
+    }
+
+    /**
+     * Return the packed ARGB colour of the cell at the given position, or
+     * Palette.NONE if it has none.
+     */
+    public int getColour(int row, int col) {
+        return cellAt(row, col).getColor();
+    }
+
+    /**
+     * Return the energy left of the cell at the given position.
+     */
+    public int getEnergyLeft(int row, int col) {
+        return cellAt(row, col).getEnergyLeft();
+    }
+
+    /**
+     * Check whether the cell at the given position has the plague.
+     */
+    public boolean hasPlague(int row, int col) {
+        return cellAt(row, col).hasPlague();
+    }
+
+    /**
+     * Return the population of the whole field.
+     *
+     * @return The statistics of the field.
+     */
+    public FieldStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Return the number of chunks held.
+     *
+     * @return The number of chunks.
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Return the number of generations simulated.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Return the seed all random draws are derived from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Return the depth of the field.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Return the width of the field.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Run a colony and report the final populations, the number of chunks
+     * held and the simulation speed.
+     */
+    public static void main(String[] args) {
+        int colonySize = DEFAULT_COLONY_SIZE;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--colony") && i + 1 < args.length) {
+                colonySize = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+        int numRows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROWS;
+        int numColumns = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_COLUMNS;
+        int numGenerations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_GENERATIONS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        SparseWorld world = new SparseWorld(numRows, numColumns, seed);
+        int rows = Math.min(colonySize, numRows);
+        int cols = Math.min(colonySize, numColumns);
+        world.seed((numRows - rows) / 2, (numColumns - cols) / 2, rows, cols, new CellFactory(new Random(seed)));
+
+        long start = System.nanoTime();
+        int simulated = world.simulate(numGenerations);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Field: " + numRows + "x" + numColumns + ", seed " + seed
+                + ", colony " + rows + "x" + cols + ", generation " + world.getGeneration());
+        System.out.println("Generations: " + simulated + (simulated < numGenerations ? " (no longer viable)" : ""));
+        System.out.println("Population: " + world.getStats().getPopulationDetails(null));
+        System.out.println("Chunks: " + world.getChunkCount());
+        System.out.printf("Generations per second: %.1f%n", seconds > 0 ? simulated / seconds : 0.0);
+    }
+
+    /**
+     * A chunk held as real cells.
+     */
+    private class Chunk {
+        final long key;
+        final int chunkRow, chunkCol;
+        final int firstRow, firstCol, rows, cols;
+        final Field field;
+        // The cells of the chunk, row by row.
+        final Cell[] cells;
+        // Whether there was no life in or around the chunk when the current
+        // generation started.
+        boolean quiet;
+
+        /**
+         * Make a chunk as it is in the current generation: background, with
+         * the remains of the chunk restored if it was dropped before.
+         */
+        Chunk(int chunkRow, int chunkCol) {
+            this.chunkRow = chunkRow;
+            this.chunkCol = chunkCol;
+            key = key(chunkRow, chunkCol);
+            firstRow = chunkRow * CHUNK_SIZE;
+            firstCol = chunkCol * CHUNK_SIZE;
+            rows = Math.min(CHUNK_SIZE, depth - firstRow);
+            cols = Math.min(CHUNK_SIZE, width - firstCol);
+            field = new Field(depth, width, seed, firstRow, rows, firstCol, cols);
+            field.setGeneration(generation);
+            cells = new Cell[rows * cols];
+            Remains left = remains.get(key);
+            int next = 0;
+            for (int index = 0; index < cells.length; index++) {
+                int row = firstRow + index / cols;
+                int col = firstCol + index % cols;
+                if (left != null && next < left.size && left.indices[next] == index) {
+                    cells[index] = makeCell(left.types[next], row, col, left.energyAt(next, generation),
+                            left.colours[next]);
+                    next++;
+                } else {
+                    CellType type = backgroundType(row, col);
+                    cells[index] = makeCell(type, row, col, backgroundEnergy(type), backgroundColour(type, row, col));
+                }
+            }
+        }
+
+        /**
+         * Make a dead cell without plague, as a cell with no living
+         * neighbours is left after acting.
+         */
+        Cell makeCell(CellType type, int row, int col, int energy, int colour) {
+            Cell cell = CellFactory.createCell(type, field, new Location(row, col));
+            cell.setDead();
+            cell.setEnergyLeft(energy);
+            cell.setColor(colour);
+            return cell;
+        }
+
+        int indexOf(int row, int col) {
+            return (row - firstRow) * cols + col - firstCol;
+        }
+
+        /**
+         * Return the number of living cells in the chunk.
+         */
+        int living() {
+            FieldStats chunkStats = field.getStats();
+            int living = 0;
+            for (CellType cellType : TYPES) {
+                living += chunkStats.getPopulation(cellType);
+            }
+            return living;
+        }
+    }
+
+    /**
+     * The squares of a dropped chunk that differ from the background, in
+     * order, as they were in the generation it was dropped.
+     */
+    private static class Remains {
+        final int generation;
+        int[] indices = new int[4];
+        CellType[] types = new CellType[4];
+        int[] energies = new int[4];
+        int[] colours = new int[4];
+        int size;
+
+        Remains(int generation) {
+            this.generation = generation;
+        }
+
+        void add(int index, Cell cell) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+                types = Arrays.copyOf(types, size * 2);
+                energies = Arrays.copyOf(energies, size * 2);
+                colours = Arrays.copyOf(colours, size * 2);
+            }
+            indices[size] = index;
+            types[size] = cell.getType();
+            energies[size] = cell.getEnergyLeft();
+            colours[size] = cell.getColor();
+            size++;
+        }
+
+        /**
+         * Return the energy of one square in a later generation. Only a dead
+         * Wolbachia's energy changes while the chunk is dropped.
+         */
+        int energyAt(int i, int now) {
+            if (types[i] == CellType.WOLBACHIA) {
+                return (int) Math.max(Integer.MIN_VALUE, (long) energies[i] - (now - generation));
+            }
+            return energies[i];
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package life.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import life.model.Cell;
+import life.model.CellType;
+
+/**
+ * Simulates one strip of rows of a field that is split between processes,
+ * under the control of a DistributedRunner. Each worker holds only its own
+ * rows, and copies of the rows just above and below them, which belong to the
+ * neighbouring workers.
+ *
+ * The cells act in row order and change their plague and colour as they act,
+ * so a cell sees the neighbours before it in row order as they are after
+ * acting, and the neighbours after it as they were before. The workers keep
+ * exactly that order between strips. Before its first row acts, a worker
+ * waits for the row above as it is after the worker above has acted; before
+ * its last row acts, it waits for the row below as it was at the end of the
+ * previous generation. Each worker therefore runs about one generation ahead
+ * of the worker below it, and all of them work at once.
+ *
+ * Rows travel between workers, and to and from the coordinator, as the
+ * records of FieldSnapshot. Rows from the neighbouring workers are read as
+ * soon as they arrive, by a thread for each, so sending a row never waits for
+ * the receiving worker to get round to it.
+ *
+ * Usage: StripWorker host port
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class StripWorker {
+    // The commands sent by the coordinator.
+    static final byte SETUP = 1;
+    static final byte INIT = 2;
+    static final byte RUN = 3;
+    static final byte SNAPSHOT = 4;
+    static final byte QUIT = 5;
+
+    private static final CellType[] TYPES = CellType.values();
+
+    // The connection to the coordinator.
+    private final DataInputStream control;
+    private final DataOutputStream report;
+
+    // The connections to the workers above and below, or null at the edges.
+    private Link toAbove, toBelow;
+
+    // The rows of this worker, their cells in row order, and the copies of
+    // the neighbouring rows, each in a field of its own so that they are not
+    // counted with this worker's cells.
+    private Field field;
+    private Cell[] cells;
+    private Field above, below;
+    private int width;
+
+    // The records of one row.
+    private byte[] row;
+
+    /**
+     * Run a worker connected to the coordinator at the given host and port.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: StripWorker host port");
+            System.exit(2);
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            new StripWorker(socket).serve();
+        }
+    }
+
+    private StripWorker(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        control = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        report = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Carry out the coordinator's commands until told to quit.
+     */
+    private void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            // Tell the coordinator where the worker below can reach this one.
+            report.writeInt(server.getLocalPort());
+            report.flush();
+            while (true) {
+                byte command = control.readByte();
+                switch (command) {
+                    case SETUP:
+                        setUp(server);
+                        break;
+                    case INIT:
+                        init();
+                        break;
+                    case RUN:
+                        run(control.readInt());
+                        break;
+                    case SNAPSHOT:
+                        snapshot();
+                        break;
+                    case QUIT:
+                        return;
+                    default:
+                        throw new IOException("Unknown command " + command);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the strip and connect to the neighbouring workers.
+     */
+    private void setUp(ServerSocket server) throws IOException {
+        int depth = control.readInt();
+        width = control.readInt();
+        long seed = control.readLong();
+        int firstRow = control.readInt();
+        int rows = control.readInt();
+        int abovePort = control.readInt();
+        boolean hasBelow = control.readBoolean();
+
+        field = new Field(depth, width, seed, firstRow, rows);
+        cells = new Cell[rows * width];
+        row = new byte[width * FieldSnapshot.RECORD_SIZE];
+        // Connect upwards before accepting from below, so the chain of
+        // workers connects from the top down.
+        if (abovePort >= 0) {
+            toAbove = new Link(new Socket(InetAddress.getLoopbackAddress(), abovePort), row.length, "above");
+            above = new Field(depth, width, seed, firstRow - 1, 1);
+        }
+        if (hasBelow) {
+            toBelow = new Link(server.accept(), row.length, "below");
+            below = new Field(depth, width, seed, firstRow + rows, 1);
+        }
+    }
+
+    /**
+     * Load the initial rows of the strip from the coordinator.
+     */
+    private void init() throws IOException {
+        int generation = control.readInt();
+        field.setGeneration(generation);
+        if (above != null) {
+            above.setGeneration(generation);
+        }
+        if (below != null) {
+            below.setGeneration(generation);
+        }
+        for (int r = 0; r < field.getRows(); r++) {
+            control.readFully(row);
+            readRow(row, field, field.getFirstRow() + r);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = field.getObjectAt(field.getFirstRow() + i / width, i % width);
+        }
+        sendTop();
+        report();
+    }
+
+    /**
+     * Simulate a number of generations, reporting each to the coordinator.
+     */
+    private void run(int generations) throws IOException {
+        int lastRowStart = cells.length - width;
+        for (int n = 0; n < generations; n++) {
+            int generation = field.getGeneration() + 1;
+            field.setGeneration(generation);
+            if (toAbove != null) {
+                // The row above, after acting in this generation.
+                receive(toAbove, above, field.getFirstRow() - 1);
+            }
+            for (int i = 0; i < lastRowStart; i++) {
+                cells[i].act();
+            }
+            if (toBelow != null) {
+                // The row below, as it was at the end of the last generation.
+                receive(toBelow, below, field.getFirstRow() + field.getRows());
+            }
+            for (int i = lastRowStart; i < cells.length; i++) {
+                cells[i].act();
+            }
+            if (toBelow != null) {
+                send(toBelow.out, lastRowStart);
+            }
+            for (Cell cell : cells) {
+                cell.updateState();
+            }
+            sendTop();
+            report();
+        }
+    }
+
+    /**
+     * Send the top row to the worker above, as it is at the end of this
+     * generation.
+     */
+    private void sendTop() throws IOException {
+        if (toAbove != null) {
+            send(toAbove.out, 0);
+        }
+    }
+
+    /**
+     * Send the records of the row starting at a cell index.
+     */
+    private void send(DataOutputStream out, int start) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(row);
+        for (int i = start; i < start + width; i++) {
+            FieldSnapshot.putRecord(buffer, cells[i]);
+        }
+        out.write(row);
+        out.flush();
+    }
+
+    /**
+     * Receive a neighbouring row into its field, and link its cells into the
+     * border of the strip.
+     */
+    private void receive(Link link, Field neighbours, int r) throws IOException {
+        byte[] records = link.take();
+        neighbours.setGeneration(field.getGeneration());
+        readRow(records, neighbours, r);
+        for (int col = 0; col < width; col++) {
+            field.setNeighbouringCell(r, col, neighbours.getObjectAt(r, col));
+        }
+    }
+
+    /**
+     * Read the records of one row into a field.
+     */
+    private void readRow(byte[] records, Field target, int r) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(records);
+        for (int col = 0; col < width; col++) {
+            FieldSnapshot.getRecord(buffer, target, r, col);
+        }
+    }
+
+    /**
+     * Report the generation, the population and the state hash of the strip.
+     */
+    private void report() throws IOException {
+        FieldStats stats = field.getStats();
+        report.writeInt(field.getGeneration());
+        for (CellType cellType : TYPES) {
+            report.writeInt(stats.getPopulation(cellType));
+            report.writeInt(stats.getPlagued(cellType));
+        }
+        report.writeLong(field.getStateHash());
+        report.writeBoolean(field.isDeterministic());
+        report.flush();
+    }
+
+    /**
+     * Send the records of every row of the strip to the coordinator.
+     */
+    private void snapshot() throws IOException {
+        for (int start = 0; start < cells.length; start += width) {
+            send(report, start);
+        }
+    }
+
+    /**
+     * The connection to a neighbouring worker. The rows it sends are read
+     * into a queue by a thread of their own.
+     */
+    private static class Link {
+        final DataOutputStream out;
+        private final BlockingQueue<byte[]> rows = new LinkedBlockingQueue<>();
+        private final String name;
+
+        Link(Socket socket, int rowLength, String name) throws IOException {
+            this.name = name;
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Thread reader = new Thread(() -> {
+                try {
+                    while (true) {
+                        byte[] row = new byte[rowLength];
+                        in.readFully(row);
+                        rows.add(row);
+                    }
+                } catch (IOException e) {
+                    // The neighbour has gone: an empty row marks the end.
+                    rows.add(new byte[0]);
+                }
+            }, "strip-link-" + name);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /**
+         * Wait for the next row from the neighbour.
+         */
+        byte[] take() throws IOException {
+            try {
+                byte[] row = rows.take();
+                if (row.length == 0) {
+                    throw new IOException("Lost the worker " + name + ".");
+                }
+                return row;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for the worker " + name + ".", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package life.simulator.grid;
+
+import java.util.Arrays;
+
+import life.model.CellType;
+
+/**
+ * The living squares of a GridField as bitboards, one per cell type plus one
+ * for every living square, with each row padded to whole 64-bit words. The
+ * neighbour counts of 64 squares at once are worked out with bit-sliced
+ * adders: each count is held in four bit planes, so adding one neighbour to
+ * all 64 squares takes a handful of word operations.
+ *
+ * The bitboards also record which squares are settled: dead, with no living
+ * neighbours, and already reset by acting in that state, so they can be
+ * skipped a whole word at a time.
+ *
+ * The words are indexed by a long and kept on or off the heap, as the state
+ * of the field is.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+final class Bitboards {
+    // The number of bit planes in a count; 4 planes hold counts up to 15.
+    static final int PLANES = 4;
+    // The board holding every living square, after the per-type boards.
+    static final int ALL = CellType.values().length;
+
+    private static final int WOLBACHIA = CellType.WOLBACHIA.ordinal();
+
+    // The depth of each field of a batch stacked in the boards, and the words
+    // in each padded row.
+    private final int fieldDepth, wordsPerRow;
+
+    // The living squares of each type, and every living square.
+    private final LongPages[] boards;
+    // The squares holding a Wolbachia, living or dead.
+    private final LongPages wolbachia;
+    // The squares that are settled in their dead state.
+    private final LongPages settled;
+
+    /**
+     * Create empty bitboards for a field of the given dimensions.
+     *
+     * @param fieldDepth The depth of each field of a batch, or the depth.
+     * @param direct Whether the words are kept outside the heap.
+     */
+    Bitboards(int depth, int fieldDepth, int width, boolean direct) {
+        this.fieldDepth = fieldDepth;
+        wordsPerRow = (width + 63) >>> 6;
+        long words = (long) depth * wordsPerRow;
+        boards = new LongPages[ALL + 1];
+        for (int board = 0; board <= ALL; board++) {
+            boards[board] = LongPages.allocate(words, direct);
+        }
+        wolbachia = LongPages.allocate(words, direct);
+        settled = LongPages.allocate(words, direct);
+    }
+
+    /**
+     * Empty every board.
+     */
+    void clear() {
+        for (LongPages board : boards) {
+            board.clear();
+        }
+        wolbachia.clear();
+        settled.clear();
+    }
+
+    /**
+     * Record the type of a square, which never changes once populated.
+     */
+    void setType(int row, int col, int type) {
+        setBit(wolbachia, row, col, type == WOLBACHIA);
+    }
+
+    /**
+     * Record whether a square of the given type is alive.
+     */
+    void setAlive(int row, int col, int type, boolean alive) {
+        setBit(boards[type], row, col, alive);
+        setBit(boards[ALL], row, col, alive);
+    }
+
+    /**
+     * Record whether a square is settled in its dead state. Called while
+     * acting, so parallel bands only ever write to their own rows.
+     */
+    void setSettled(int row, int col, boolean isSettled) {
+        setBit(settled, row, col, isSettled);
+    }
+
+    /**
+     * Return the squares of one word of a row that can be skipped: settled,
+     * still dead with no living neighbours, and not a Wolbachia, whose
+     * energy counts down even while dead.
+     *
+     * @param row    The row.
+     * @param word   The word of the row.
+     * @param planes The counts of the word, as filled by countWord.
+     * @return A mask with a bit set for every square to skip.
+     */
+    long quiet(int row, int word, long[] planes) {
+        long at = (long) row * wordsPerRow + word;
+        long noNeighbours = ~(planes[ALL * PLANES] | planes[ALL * PLANES + 1]
+                | planes[ALL * PLANES + 2] | planes[ALL * PLANES + 3]);
+        return noNeighbours & settled.getLong(at) & ~boards[ALL].getLong(at) & ~wolbachia.getLong(at);
+    }
+
+    /**
+     * Count the living neighbours of the 64 squares in one word of a row, in
+     * total and per type, with bit-sliced adders.
+     *
+     * @param row    The row.
+     * @param word   The word of the row.
+     * @param planes Filled with PLANES planes per board, board by board.
+     */
+    void countWord(int row, int word, long[] planes) {
+        Arrays.fill(planes, 0);
+        // Rows of the fields stacked above and below are not neighbours.
+        int top = row - row % fieldDepth;
+        for (int board = 0; board <= ALL; board++) {
+            LongPages bits = boards[board];
+            int base = board * PLANES;
+            for (int nextRow = Math.max(top, row - 1); nextRow <= Math.min(top + fieldDepth - 1, row + 1); nextRow++) {
+                long at = (long) nextRow * wordsPerRow + word;
+                long centre = bits.getLong(at);
+                long before = word > 0 ? bits.getLong(at - 1) : 0;
+                long after = word < wordsPerRow - 1 ? bits.getLong(at + 1) : 0;
+                // The neighbour to the west of a square is one bit lower.
+                add(planes, base, (centre << 1) | (before >>> 63));
+                add(planes, base, (centre >>> 1) | (after << 63));
+                // A square is not its own neighbour.
+                if (nextRow != row) {
+                    add(planes, base, centre);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add one neighbour bit to each of 64 counts held in bit planes, rippling
+     * the carries up through the planes.
+     */
+    private static void add(long[] planes, int base, long bits) {
+        long carry = planes[base] & bits;
+        planes[base] ^= bits;
+        long carry2 = planes[base + 1] & carry;
+        planes[base + 1] ^= carry;
+        long carry3 = planes[base + 2] & carry2;
+        planes[base + 2] ^= carry2;
+        planes[base + 3] |= carry3;
+    }
+
+    /**
+     * Read the count of one square from bit planes filled by countWord.
+     *
+     * @param planes The planes.
+     * @param board  The board to read, a type ordinal or ALL.
+     * @param bit    The position of the square in its word.
+     * @return The number of living neighbours.
+     */
+    static int count(long[] planes, int board, int bit) {
+        int base = board * PLANES;
+        return (int) ((planes[base] >>> bit) & 1)
+                | (int) ((planes[base + 1] >>> bit) & 1) << 1
+                | (int) ((planes[base + 2] >>> bit) & 1) << 2
+                | (int) ((planes[base + 3] >>> bit) & 1) << 3;
+    }
+
+    private void setBit(LongPages bits, int row, int col, boolean value) {
+        long at = (long) row * wordsPerRow + (col >>> 6);
+        long word = bits.getLong(at);
+        bits.putLong(at, value ? word | 1L << col : word & ~(1L << col));
+    }
+}
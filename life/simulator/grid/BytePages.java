@@ -0,0 +1,91 @@
+package life.simulator.grid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An array of 8-bit elements indexed by a long, on the heap or off it.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+abstract class BytePages extends Pages {
+    private BytePages(long length) {
+        super(length);
+    }
+
+    /**
+     * Allocate an array of zeroed elements.
+     *
+     * @param length The number of elements.
+     * @param direct Whether the pages are allocated outside the heap.
+     * @return The array.
+     */
+    static BytePages allocate(long length, boolean direct) {
+        return direct ? new Direct(length) : new Heap(heapLength(length));
+    }
+
+    abstract byte getByte(long index);
+
+    abstract void putByte(long index, byte value);
+
+    /**
+     * Copy every element of another array, of the same length and storage,
+     * into this one.
+     */
+    abstract void copyFrom(BytePages other);
+
+    private static final class Heap extends BytePages {
+        private final byte[] elements;
+
+        Heap(int length) {
+            super(length);
+            elements = new byte[length];
+        }
+
+        byte getByte(long index) {
+            return elements[(int) index];
+        }
+
+        void putByte(long index, byte value) {
+            elements[(int) index] = value;
+        }
+
+        void clear() {
+            Arrays.fill(elements, (byte) 0);
+        }
+
+        void copyFrom(BytePages other) {
+            System.arraycopy(((Heap) other).elements, 0, elements, 0, elements.length);
+        }
+    }
+
+    private static final class Direct extends BytePages {
+        private static final int PAGE_SHIFT = pageShift(Byte.BYTES);
+        private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+        private final ByteBuffer[] pages;
+
+        Direct(long length) {
+            super(length);
+            pages = allocateDirect(length, Byte.BYTES);
+        }
+
+        byte getByte(long index) {
+            return pages[(int) (index >>> PAGE_SHIFT)].get((int) (index & PAGE_MASK));
+        }
+
+        void putByte(long index, byte value) {
+            pages[(int) (index >>> PAGE_SHIFT)].put((int) (index & PAGE_MASK), value);
+        }
+
+        void clear() {
+            clear(pages);
+        }
+
+        void copyFrom(BytePages other) {
+            copy(((Direct) other).pages, pages);
+        }
+    }
+}
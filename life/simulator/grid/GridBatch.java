@@ -0,0 +1,181 @@
+package life.simulator.grid;
+
+import java.util.Random;
+
+import life.model.CellFactory;
+import life.model.CellType;
+
+/**
+ * Simulates many small fields of the same size at once, one for each seed.
+ * The fields are stacked one above the other in a single GridField, so that
+ * their state lies in the same few arrays and one pass over them steps every
+ * field. A field never sees the ones next to it: its edges are as if it were
+ * alone, and it draws its random numbers from its own seed.
+ *
+ * Each field therefore goes exactly as a Simulator with the same seed would,
+ * without the cost of a separate object graph, history and thread per
+ * simulation.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class GridBatch {
+    private final GridField grid;
+    private final int depth, width;
+    private final long[] seeds;
+
+    /**
+     * Represent a batch of fields of the given dimensions.
+     *
+     * @param depth The depth of each field.
+     * @param width The width of each field.
+     * @param seeds The seed of each field.
+     */
+    public GridBatch(int depth, int width, long[] seeds) {
+        this(depth, width, seeds, GridField.NeighbourCounting.INCREMENTAL);
+    }
+
+    /**
+     * Represent a batch of fields of the given dimensions. Every way of
+     * counting neighbours gives the same results.
+     *
+     * @param depth    The depth of each field.
+     * @param width    The width of each field.
+     * @param seeds    The seed of each field.
+     * @param counting How the living neighbours of each square are counted.
+     */
+    public GridBatch(int depth, int width, long[] seeds, GridField.NeighbourCounting counting) {
+        this.depth = depth;
+        this.width = width;
+        this.seeds = seeds.clone();
+        grid = new GridField(depth, width, seeds, false, counting, GridField.Storage.HEAP);
+    }
+
+    /**
+     * Fill every field as a Simulator with its seed fills a new field.
+     */
+    public void populate() {
+        CellFactory[] cellFactories = new CellFactory[seeds.length];
+        for (int field = 0; field < seeds.length; field++) {
+            cellFactories[field] = new CellFactory(new Random(seeds[field]));
+        }
+        grid.populate(cellFactories);
+    }
+
+    /**
+     * Fill every field from its own factory.
+     *
+     * @param cellFactories The factory of each field, in order.
+     */
+    public void populate(CellFactory[] cellFactories) {
+        if (cellFactories.length != seeds.length) {
+            throw new IllegalArgumentException("Expected " + seeds.length + " factories.");
+        }
+        grid.populate(cellFactories);
+    }
+
+    /**
+     * Simulate one generation of every field.
+     */
+    public void step() {
+        grid.step();
+    }
+
+    /**
+     * Return the number of living cells of a type in one field.
+     *
+     * @param field    The field.
+     * @param cellType The type of cell.
+     * @return The number of living cells of that type.
+     */
+    public int getPopulation(int field, CellType cellType) {
+        if (field < 0 || field >= seeds.length) {
+            throw new IndexOutOfBoundsException("Field " + field + " is not in the batch.");
+        }
+        return grid.getPopulation(field, cellType);
+    }
+
+    /**
+     * Check whether the cell at the given position of a field is alive.
+     */
+    public boolean isAlive(int field, int row, int col) {
+        return grid.isAlive(rowOf(field, row), col);
+    }
+
+    /**
+     * Return the type of the cell at the given position of a field.
+     */
+    public CellType getType(int field, int row, int col) {
+        return grid.getType(rowOf(field, row), col);
+    }
+
+    /**
+     * Return the packed ARGB colour of the cell at the given position of a
+     * field, or GridField.NO_COLOUR if it has none.
+     */
+    public int getColour(int field, int row, int col) {
+        return grid.getColour(rowOf(field, row), col);
+    }
+
+    /**
+     * Return the energy left of the cell at the given position of a field.
+     */
+    public int getEnergyLeft(int field, int row, int col) {
+        return grid.getEnergyLeft(rowOf(field, row), col);
+    }
+
+    /**
+     * Check whether the cell at the given position of a field has the
+     * plague.
+     */
+    public boolean hasPlague(int field, int row, int col) {
+        return grid.hasPlague(rowOf(field, row), col);
+    }
+
+    /**
+     * Return the row of the stacked fields a row of one field is held in.
+     */
+    private int rowOf(int field, int row) {
+        if (row < 0 || row >= depth) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the field.");
+        }
+        return field * depth + row;
+    }
+
+    /**
+     * Return the number of fields in the batch.
+     */
+    public int getSize() {
+        return seeds.length;
+    }
+
+    /**
+     * Return the seed of one field.
+     */
+    public long getSeed(int field) {
+        return seeds[field];
+    }
+
+    /**
+     * Return the number of generations stepped since the fields were
+     * populated.
+     */
+    public int getGeneration() {
+        return grid.getGeneration();
+    }
+
+    /**
+     * Return the depth of each field.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Return the width of each field.
+     */
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,1113 @@
+package life.simulator.grid;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.model.CellType;
+import life.model.cells.Escherichia;
+import life.model.cells.Mycoplasma;
+import life.model.cells.Photobacterium;
+import life.model.cells.Wolbachia;
+import life.simulator.Field;
+import life.utils.CounterRandom;
+import life.utils.Palette;
+
+/**
+ * A rectangular field of cells stored as flat primitive arrays instead of one
+ * Cell object per position. Every square holds a type ordinal, an energy
+ * value, a packed ARGB colour and alive, next-state and plague bits, so a
+ * square costs a few bytes rather than a full object graph.
+ *
+ * The rules of the five cell types are implemented here directly and draw
+ * the same counter-based random numbers as the Cell classes, so a GridField
+ * reproduces a Field with the same seed, populated from the same factory.
+ *
+ * Like the Cell classes, the rules normally see the plague and colour a
+ * neighbour was given earlier in the same generation. A synchronous field
+ * instead reads every neighbour as it was at the start of the generation,
+ * which makes the result independent of the order squares are visited in.
+ * Only a synchronous field can be stepped in parallel.
+ *
+ * The field is divided into square tiles that sleep while nothing can happen
+ * in them. A dead square with no living neighbours settles into a fixed state
+ * after acting once: it stays dead, without plague, and with its energy reset,
+ * except that a dead Wolbachia's energy keeps counting down. A tile is
+ * therefore skipped when it acted in that settled state last generation and
+ * still has no living square in it or in the ring of squares around it. The
+ * Wolbachia countdown missed while asleep is applied when the tile wakes.
+ *
+ * Every square also keeps the number of its living neighbours of each type.
+ * The counts are only touched when a square actually comes alive or dies, so
+ * most squares learn their neighbourhood without looking at it. The living
+ * neighbours are only gathered and shuffled when a rule needs to know which
+ * one is the most common.
+ *
+ * For very large fields with a lot of churn the counts can instead be worked
+ * out each generation from bitboards of the living squares of each type, 64
+ * squares at a time. In that mode squares that are dead, have no living
+ * neighbours and were already reset are skipped a word at a time.
+ *
+ * Squares are indexed by a long, so a field can hold more than
+ * Integer.MAX_VALUE of them. Their state can be kept off the Java heap, where
+ * a field far larger than the heap takes no part in garbage collection.
+ *
+ * A GridBatch stacks several fields of the same size, each with its own
+ * seed, one above the other in a single GridField, which keeps them apart.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class GridField {
+    /**
+     * How the living neighbours of each square are counted.
+     */
+    public enum NeighbourCounting {
+        // Per-square counts, updated whenever a square comes alive or dies.
+        INCREMENTAL,
+        // Bit-sliced counts of 64 squares at a time, from per-type bitboards.
+        BITBOARD
+    }
+
+    /**
+     * Where the state of the squares is kept.
+     */
+    public enum Storage {
+        // In arrays on the Java heap.
+        HEAP,
+        // In direct buffers outside the Java heap.
+        OFF_HEAP
+    }
+
+    // Packed colour of a square without a colour.
+    public static final int NO_COLOUR = Palette.NONE;
+
+    // Estimated cost of a band below which a parallel step stops splitting it.
+    private static final int SPLIT_THRESHOLD = 1 << 15;
+    // Extra cost of a living square compared to a dead one.
+    private static final int LIVING_COST = 4;
+
+    // The width and height of a tile, in squares.
+    private static final int TILE_SIZE = 32;
+    // Marks a tile that is not asleep.
+    private static final int AWAKE = -1;
+
+    private static final CellType[] TYPES = CellType.values();
+    private static final int MYCOPLASMA = CellType.MYCOPLASMA.ordinal();
+    private static final int ESCHERICHIA = CellType.ESCHERICHIA.ordinal();
+    private static final int PHOTOBACTERIUM = CellType.PHOTOBACTERIUM.ordinal();
+    private static final int PSEUDOMONAS = CellType.PSEUDOMONAS.ordinal();
+    private static final int WOLBACHIA = CellType.WOLBACHIA.ordinal();
+    private static final int[] MAX_ENERGY = new int[TYPES.length];
+
+    static {
+        for (CellType type : TYPES) {
+            MAX_ENERGY[type.ordinal()] = type.getMaxEnergy();
+        }
+    }
+
+    private static final int ESCHERICHIA_DEFAULT_COLOUR = Escherichia.DEFAULT_COLOR;
+    private static final int PLAGUE_COLOUR = Cell.PLAGUE_COLOR;
+
+    // The depth and width of the field, and the number of squares.
+    private final int depth, width;
+    private final long size;
+    // Whether every index fits in an int, so rows and columns can be worked
+    // out with int division.
+    private final boolean intIndexed;
+
+    // Per-square state, indexed by row * width + col: the type ordinals,
+    // energies and colours, and the alive, next-state and plague bits packed
+    // into words.
+    private final BytePages types;
+    private final ShortPages energy;
+    private final IntPages colours;
+    private final LongPages alive;
+    private final LongPages nextAlive;
+    private final LongPages plague;
+
+    // The number of living neighbours of each square, in total and of each
+    // type, indexed by index * TYPES.length + type. Null when counting with
+    // bitboards.
+    private final BytePages livingCounts;
+    private final BytePages neighbourCounts;
+
+    // The bitboards neighbours are counted from, or null when the counts
+    // are kept per square.
+    private final Bitboards bitboards;
+
+    // The colour and plague state rules see when looking at a neighbour.
+    // For a synchronous field these are snapshots taken at the start of each
+    // generation; otherwise they are the live arrays.
+    private final IntPages neighbourColours;
+    private final LongPages neighbourPlague;
+
+    // Whether neighbours are read as they were at the start of a generation.
+    private final boolean synchronous;
+
+    // Where the state of the squares is kept.
+    private final Storage storage;
+
+    // The seed all random draws are derived from, and the seed of each field
+    // of a batch.
+    private final long seed;
+    private final long[] seeds;
+
+    // The number of rows of each field of a batch, which is the whole depth
+    // unless several fields are stacked one above the other.
+    private final int fieldDepth;
+
+    // The rules used by sequential steps and when populating.
+    private final Rules rules;
+
+    // The number of rows in the smallest band a parallel step hands to a
+    // thread, chosen so that bands never share a word of the bitsets.
+    private final int bandRows;
+
+    // The number of tiles down and across the field.
+    private final int tilesDown, tilesAcross;
+    // The number of living squares in each tile.
+    private final int[] tileLiving;
+    // The number of living squares of each type in each field of a batch,
+    // indexed by field * TYPES.length + type.
+    private final int[] fieldLiving;
+    // Whether each tile is acted on in the current generation.
+    private final boolean[] tileActive;
+    // Whether each tile acted with no living square in or around it last
+    // generation, so that all its squares are in their settled state.
+    private final boolean[] tileSettled;
+    // The generation each sleeping tile fell asleep in, or AWAKE.
+    private final int[] sleepingSince;
+
+    // The number of generations stepped since the field was populated.
+    private int generation;
+
+    /**
+     * Represent a field of the given dimensions that behaves exactly like a
+     * Field with the same seed.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param seed  The seed all random draws are derived from.
+     */
+    public GridField(int depth, int width, long seed) {
+        this(depth, width, seed, false);
+    }
+
+    /**
+     * Represent a field of the given dimensions whose seed is the next long
+     * of the given generator.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param rand  The generator the seed is taken from.
+     * @deprecated Fields no longer share a generator; pass a seed to
+     *             GridField(int, int, long) instead.
+     */
+    @Deprecated
+    public GridField(int depth, int width, Random rand) {
+        this(depth, width, rand.nextLong());
+    }
+
+    /**
+     * Represent a field of the given dimensions.
+     *
+     * @param depth       The depth of the field.
+     * @param width       The width of the field.
+     * @param seed        The seed all random draws are derived from.
+     * @param synchronous Whether neighbours are read as they were at the
+     *                    start of each generation, so the field can be
+     *                    stepped in parallel.
+     */
+    public GridField(int depth, int width, long seed, boolean synchronous) {
+        this(depth, width, seed, synchronous, NeighbourCounting.INCREMENTAL);
+    }
+
+    /**
+     * Represent a field of the given dimensions. Every way of counting
+     * neighbours gives the same results.
+     *
+     * @param depth       The depth of the field.
+     * @param width       The width of the field.
+     * @param seed        The seed all random draws are derived from.
+     * @param synchronous Whether neighbours are read as they were at the
+     *                    start of each generation, so the field can be
+     *                    stepped in parallel.
+     * @param counting    How the living neighbours of each square are
+     *                    counted.
+     */
+    public GridField(int depth, int width, long seed, boolean synchronous, NeighbourCounting counting) {
+        this(depth, width, seed, synchronous, counting, Storage.HEAP);
+    }
+
+    /**
+     * Represent a field of the given dimensions. The state of the squares is
+     * kept where asked; the results are the same either way.
+     *
+     * @param depth       The depth of the field.
+     * @param width       The width of the field.
+     * @param seed        The seed all random draws are derived from.
+     * @param synchronous Whether neighbours are read as they were at the
+     *                    start of each generation, so the field can be
+     *                    stepped in parallel.
+     * @param counting    How the living neighbours of each square are
+     *                    counted.
+     * @param storage     Where the state of the squares is kept.
+     */
+    public GridField(int depth, int width, long seed, boolean synchronous, NeighbourCounting counting,
+            Storage storage) {
+        this(depth, width, new long[] { seed }, synchronous, counting, storage);
+    }
+
+    /**
+     * Represent a batch of fields of the same dimensions, one for each seed,
+     * stacked one above the other. The fields do not see each other: each
+     * one's edges are as if it were alone, and draws its random numbers from
+     * its own seed and its own rows.
+     *
+     * @param fieldDepth  The depth of each field.
+     * @param width       The width of each field.
+     * @param seeds       The seed of each field.
+     * @param synchronous Whether neighbours are read as they were at the
+     *                    start of each generation.
+     * @param counting    How the living neighbours of each square are
+     *                    counted.
+     * @param storage     Where the state of the squares is kept.
+     */
+    GridField(int fieldDepth, int width, long[] seeds, boolean synchronous, NeighbourCounting counting,
+            Storage storage) {
+        if (fieldDepth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Dimensions must be greater than zero.");
+        }
+        if (seeds.length == 0 || (long) fieldDepth * seeds.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot stack " + seeds.length + " fields.");
+        }
+        int depth = fieldDepth * seeds.length;
+        if ((long) (depth / TILE_SIZE + 1) * (width / TILE_SIZE + 1) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field is too large: " + depth + "x" + width);
+        }
+        this.depth = depth;
+        this.fieldDepth = fieldDepth;
+        this.width = width;
+        this.size = (long) depth * width;
+        this.intIndexed = size <= Integer.MAX_VALUE;
+        this.synchronous = synchronous;
+        this.storage = storage;
+        this.seed = seeds[0];
+        this.seeds = seeds.clone();
+        boolean direct = storage == Storage.OFF_HEAP;
+        types = BytePages.allocate(size, direct);
+        energy = ShortPages.allocate(size, direct);
+        colours = IntPages.allocate(size, direct);
+        long words = (size + 63) >>> 6;
+        alive = LongPages.allocate(words, direct);
+        nextAlive = LongPages.allocate(words, direct);
+        plague = LongPages.allocate(words, direct);
+        if (counting == NeighbourCounting.BITBOARD) {
+            livingCounts = null;
+            neighbourCounts = null;
+            bitboards = new Bitboards(depth, fieldDepth, width, direct);
+        } else {
+            livingCounts = BytePages.allocate(size, direct);
+            neighbourCounts = BytePages.allocate(size * TYPES.length, direct);
+            bitboards = null;
+        }
+        neighbourColours = synchronous ? IntPages.allocate(size, direct) : colours;
+        neighbourPlague = synchronous ? LongPages.allocate(words, direct) : plague;
+        rules = new Rules();
+        bandRows = 64 / gcd(width, 64);
+        tilesDown = (depth + TILE_SIZE - 1) / TILE_SIZE;
+        tilesAcross = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int tiles = tilesDown * tilesAcross;
+        tileLiving = new int[tiles];
+        fieldLiving = new int[seeds.length * TYPES.length];
+        tileActive = new boolean[tiles];
+        tileSettled = new boolean[tiles];
+        sleepingSince = new int[tiles];
+    }
+
+    /**
+     * Fill every square with a new cell chosen by the factory, in the same
+     * order and with the same random draws as Simulator.populate.
+     *
+     * @param cellFactory The factory deciding each cell's type and state.
+     */
+    public void populate(CellFactory cellFactory) {
+        if (seeds.length != 1) {
+            throw new IllegalStateException("Each field of a batch needs its own factory.");
+        }
+        populate(new CellFactory[] { cellFactory });
+    }
+
+    /**
+     * Fill every field of a batch from its own factory, as populate does a
+     * single field.
+     *
+     * @param cellFactories The factory of each field, in order.
+     */
+    void populate(CellFactory[] cellFactories) {
+        generation = 0;
+        alive.clear();
+        nextAlive.clear();
+        plague.clear();
+        long fieldSize = (long) fieldDepth * width;
+        for (long index = 0; index < size; index++) {
+            CellFactory cellFactory = cellFactories[(int) (index / fieldSize)];
+            CellType cellType = cellFactory.nextCellType();
+            types.putByte(index, (byte) cellType.ordinal());
+            energy.putShort(index, (short) cellType.getMaxEnergy());
+            if (cellType == CellType.PHOTOBACTERIUM) {
+                colours.putInt(index, rules.randomColour(generation, rowOf(index), colOf(index)));
+            } else {
+                colours.putInt(index, cellType.getInitialColor());
+            }
+            setBit(alive, index, cellFactory.isAlive());
+        }
+        Arrays.fill(tileLiving, 0);
+        Arrays.fill(fieldLiving, 0);
+        Arrays.fill(tileSettled, false);
+        Arrays.fill(sleepingSince, AWAKE);
+        if (bitboards != null) {
+            bitboards.clear();
+        } else {
+            livingCounts.clear();
+            neighbourCounts.clear();
+        }
+        for (long index = 0; index < size; index++) {
+            if (bitboards != null) {
+                bitboards.setType(rowOf(index), colOf(index), types.getByte(index));
+            }
+            if (getBit(alive, index)) {
+                tileLiving[tileOf(index)]++;
+                fieldLiving[livingIndex(index)]++;
+                adjustNeighbourCounts(index, 1);
+            }
+        }
+    }
+
+    /**
+     * Simulate one generation: every square acts on the current state, then
+     * all squares switch to their next state.
+     */
+    public void step() {
+        startGeneration();
+        rules.actRows(0, depth);
+        finishGeneration();
+    }
+
+    /**
+     * Simulate one generation, splitting the rows into bands acted on by the
+     * threads of the given pool. The result is identical to step().
+     *
+     * @param pool The pool to run the bands on.
+     * @throws IllegalStateException If the field is not synchronous.
+     */
+    public void stepParallel(ForkJoinPool pool) {
+        if (!synchronous) {
+            throw new IllegalStateException("Only a synchronous field can be stepped in parallel.");
+        }
+        startGeneration();
+        pool.invoke(new BandTask(0, depth));
+        finishGeneration();
+    }
+
+    /**
+     * Decide which tiles act this generation, wake the ones that stop
+     * sleeping, and take the snapshot of neighbour state read during the act
+     * phase.
+     */
+    private void startGeneration() {
+        for (int tile = 0; tile < tileActive.length; tile++) {
+            boolean quiet = isQuiet(tile);
+            tileActive[tile] = !(quiet && tileSettled[tile]);
+            tileSettled[tile] = quiet;
+            if (!tileActive[tile]) {
+                if (sleepingSince[tile] == AWAKE) {
+                    sleepingSince[tile] = generation;
+                }
+            } else if (sleepingSince[tile] != AWAKE) {
+                wake(tile);
+            }
+        }
+        if (synchronous) {
+            neighbourColours.copyFrom(colours);
+            neighbourPlague.copyFrom(plague);
+        }
+    }
+
+    /**
+     * Switch every square to its next state, keeping the count of living
+     * squares in each tile up to date.
+     */
+    private void finishGeneration() {
+        for (long word = 0; word < alive.length(); word++) {
+            long next = nextAlive.getLong(word);
+            long changed = alive.getLong(word) ^ next;
+            while (changed != 0) {
+                int bit = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                long index = (word << 6) + bit;
+                int delta = (next & (1L << bit)) != 0 ? 1 : -1;
+                tileLiving[tileOf(index)] += delta;
+                fieldLiving[livingIndex(index)] += delta;
+                adjustNeighbourCounts(index, delta);
+            }
+            alive.putLong(word, next);
+        }
+        generation++;
+    }
+
+    /**
+     * Add a change in a square's alive state to the neighbour counts of the
+     * squares around it, or to the bitboards.
+     *
+     * @param index The square that came alive or died.
+     * @param delta 1 if it came alive, -1 if it died.
+     */
+    private void adjustNeighbourCounts(long index, int delta) {
+        int row = rowOf(index);
+        int col = colOf(index);
+        int type = types.getByte(index);
+        if (bitboards != null) {
+            bitboards.setAlive(row, col, type, delta > 0);
+            return;
+        }
+        int top = fieldTop(row);
+        for (int nextRow = Math.max(top, row - 1); nextRow <= Math.min(top + fieldDepth - 1, row + 1); nextRow++) {
+            for (int nextCol = Math.max(0, col - 1); nextCol <= Math.min(width - 1, col + 1); nextCol++) {
+                long neighbour = indexOf(nextRow, nextCol);
+                if (neighbour != index) {
+                    livingCounts.putByte(neighbour, (byte) (livingCounts.getByte(neighbour) + delta));
+                    long count = neighbour * TYPES.length + type;
+                    neighbourCounts.putByte(count, (byte) (neighbourCounts.getByte(count) + delta));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a tile has no living square in it or in the ring of
+     * squares around it.
+     */
+    private boolean isQuiet(int tile) {
+        if (tileLiving[tile] != 0) {
+            return false;
+        }
+        int tileRow = tile / tilesAcross;
+        int tileCol = tile - tileRow * tilesAcross;
+        boolean neighboursEmpty = true;
+        for (int r = Math.max(0, tileRow - 1); r <= Math.min(tilesDown - 1, tileRow + 1); r++) {
+            for (int c = Math.max(0, tileCol - 1); c <= Math.min(tilesAcross - 1, tileCol + 1); c++) {
+                neighboursEmpty &= tileLiving[r * tilesAcross + c] == 0;
+            }
+        }
+        if (neighboursEmpty) {
+            return true;
+        }
+        // Some neighbouring tile is alive, so look at the ring itself.
+        int top = tileRow * TILE_SIZE - 1;
+        int bottom = Math.min(depth, (tileRow + 1) * TILE_SIZE);
+        int left = Math.max(0, tileCol * TILE_SIZE - 1);
+        int right = Math.min(width - 1, (tileCol + 1) * TILE_SIZE);
+        for (int row = Math.max(0, top); row <= Math.min(depth - 1, bottom); row++) {
+            boolean edgeRow = row == top || row == bottom;
+            for (int col = left; col <= right; col += edgeRow ? 1 : Math.max(1, right - left)) {
+                if (getBit(alive, indexOf(row, col))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wake a sleeping tile, applying the energy countdown its dead Wolbachia
+     * missed while it slept.
+     */
+    private void wake(int tile) {
+        int missed = generation - sleepingSince[tile];
+        sleepingSince[tile] = AWAKE;
+        int tileRow = tile / tilesAcross;
+        int tileCol = tile - tileRow * tilesAcross;
+        int toRow = Math.min(depth, (tileRow + 1) * TILE_SIZE);
+        int toCol = Math.min(width, (tileCol + 1) * TILE_SIZE);
+        for (int row = tileRow * TILE_SIZE; row < toRow; row++) {
+            for (int col = tileCol * TILE_SIZE; col < toCol; col++) {
+                long index = indexOf(row, col);
+                if (types.getByte(index) == WOLBACHIA) {
+                    energy.putShort(index, (short) Math.max(Short.MIN_VALUE, energy.getShort(index) - missed));
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the tile containing a square.
+     */
+    private int tileOf(long index) {
+        return (rowOf(index) / TILE_SIZE) * tilesAcross + colOf(index) / TILE_SIZE;
+    }
+
+    /**
+     * Return the index in fieldLiving of the field and type of a square.
+     */
+    private int livingIndex(long index) {
+        return rowOf(index) / fieldDepth * TYPES.length + types.getByte(index);
+    }
+
+    /**
+     * Return the first row of the field of a batch that a row belongs to.
+     */
+    private int fieldTop(int row) {
+        return row - row % fieldDepth;
+    }
+
+    /**
+     * Return the index of the square at the given position.
+     */
+    private long indexOf(int row, int col) {
+        return (long) row * width + col;
+    }
+
+    private int rowOf(long index) {
+        return intIndexed ? (int) index / width : (int) (index / width);
+    }
+
+    private int colOf(long index) {
+        return intIndexed ? (int) index % width : (int) (index % width);
+    }
+
+    /**
+     * Estimate the work of acting on a band of rows. Sleeping tiles cost
+     * nothing and living squares cost more than dead ones, so dense bands are
+     * split further than empty ones.
+     */
+    private long bandCost(int fromRow, int toRow) {
+        long cost = 0;
+        for (int tileRow = fromRow / TILE_SIZE; tileRow * TILE_SIZE < toRow; tileRow++) {
+            int rows = Math.min(toRow, (tileRow + 1) * TILE_SIZE) - Math.max(fromRow, tileRow * TILE_SIZE);
+            for (int tile = tileRow * tilesAcross; tile < (tileRow + 1) * tilesAcross; tile++) {
+                if (tileActive[tile]) {
+                    cost += (long) rows * TILE_SIZE + LIVING_COST * tileLiving[tile];
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Acts on a band of rows, splitting it in two while it is expensive
+     * enough to be worth sharing between threads. Bands always start on a
+     * multiple of bandRows so that no two bands write to the same bitset word.
+     */
+    private class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromRow, toRow;
+
+        BandTask(int fromRow, int toRow) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            int bands = (toRow - fromRow + bandRows - 1) / bandRows;
+            if (bands < 2 || bandCost(fromRow, toRow) <= SPLIT_THRESHOLD) {
+                new Rules().actRows(fromRow, toRow);
+                return;
+            }
+            int middle = fromRow + (bands / 2) * bandRows;
+            invokeAll(new BandTask(fromRow, middle), new BandTask(middle, toRow));
+        }
+    }
+
+    /**
+     * The cell rules, together with the random generator and scratch buffers
+     * they use. Each thread acting on the field has its own Rules.
+     */
+    private class Rules {
+        // The random generator of each field, and the one last positioned.
+        private final CounterRandom[] rands = new CounterRandom[seeds.length];
+        private CounterRandom rand;
+
+        Rules() {
+            for (int i = 0; i < rands.length; i++) {
+                rands[i] = new CounterRandom(seeds[i]);
+            }
+            rand = rands[0];
+        }
+
+        /**
+         * Move the generator of a square's field to the first draw of one of
+         * its streams, at its row within that field.
+         */
+        private CounterRandom position(int drawGeneration, int row, int col, int stream) {
+            int field = row / fieldDepth;
+            rand = rands[field];
+            return rand.position(drawGeneration, row - field * fieldDepth, col, stream);
+        }
+        private final long[] adjacent = new long[8];
+        private final long[] living = new long[8];
+        private final int[] typeCounts = new int[TYPES.length];
+        private final long[] planes = new long[(Bitboards.ALL + 1) * Bitboards.PLANES];
+        // The row and word of the bitboards whose counts are in planes, and
+        // its quiet squares. Two tiles share each word, which is only
+        // counted once.
+        private int countedRow, countedWord;
+        private long quiet;
+
+        /**
+         * Act on every square of a band of rows, in row-major order.
+         */
+        void actRows(int fromRow, int toRow) {
+            countedRow = -1;
+            for (int row = fromRow; row < toRow; row++) {
+                int firstTile = (row / TILE_SIZE) * tilesAcross;
+                for (int tile = 0; tile < tilesAcross; tile++) {
+                    if (!tileActive[firstTile + tile]) {
+                        continue;
+                    }
+                    int fromCol = tile * TILE_SIZE;
+                    int toCol = Math.min(width, fromCol + TILE_SIZE);
+                    if (bitboards != null) {
+                        actBitboardSegment(row, fromCol, toCol);
+                        continue;
+                    }
+                    long index = indexOf(row, fromCol);
+                    for (int col = fromCol; col < toCol; col++, index++) {
+                        act(index, row, col, countNeighbours(index));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Act on part of a row that lies within one word of the bitboards,
+         * counting the neighbours of the whole word at once and skipping its
+         * quiet squares. The counts of a word are kept for the other part of
+         * it; acting only changes the settled bits of the squares acted on,
+         * so the quiet squares of the other part stay the same.
+         */
+        private void actBitboardSegment(int row, int fromCol, int toCol) {
+            int word = fromCol >>> 6;
+            if (row != countedRow || word != countedWord) {
+                bitboards.countWord(row, word, planes);
+                quiet = bitboards.quiet(row, word, planes);
+                countedRow = row;
+                countedWord = word;
+            }
+            long index = indexOf(row, fromCol);
+            for (int col = fromCol; col < toCol; col++, index++) {
+                int bit = col & 63;
+                if ((quiet & (1L << bit)) != 0) {
+                    continue;
+                }
+                for (int type = 0; type < typeCounts.length; type++) {
+                    typeCounts[type] = Bitboards.count(planes, type, bit);
+                }
+                act(index, row, col, Bitboards.count(planes, Bitboards.ALL, bit));
+            }
+        }
+
+        /**
+         * Decide the next state of one square. The survive and birth decision
+         * is looked up in the transition table; the energy, colour, random
+         * and plague effects of the square's type are applied around it.
+         */
+        private void act(long index, int row, int col, int count) {
+            int type = types.getByte(index);
+            if (type == MYCOPLASMA && typeCounts[PHOTOBACTERIUM] >= Mycoplasma.MIN_NUM_PHOTOS) {
+                energy.putShort(index, (short) MAX_ENERGY[MYCOPLASMA]);
+            }
+            if (type != PHOTOBACTERIUM) {
+                decrementEnergy(index);
+            }
+            int majority = type == PHOTOBACTERIUM && count > 0
+                    ? mostCommonType(row, col)
+                    : TransitionTable.NO_MAJORITY;
+            boolean wasAlive = getBit(alive, index);
+            if (bitboards != null) {
+                bitboards.setSettled(row, col, count == 0 && !wasAlive);
+            }
+            byte outcome = TransitionTable.outcome(type, wasAlive, count, majority, energy.getShort(index) == 0);
+
+            switch (outcome) {
+                case TransitionTable.SURVIVE:
+                    setBit(nextAlive, index, wasAlive);
+                    break;
+                case TransitionTable.BIRTH:
+                    setBit(nextAlive, index, true);
+                    break;
+                case TransitionTable.DIE:
+                    die(index, type);
+                    // A dying Photobacterium still takes a new colour if it is alive.
+                    if (type != PHOTOBACTERIUM) {
+                        return;
+                    }
+                    break;
+                case TransitionTable.VANISH:
+                    setBit(nextAlive, index, false);
+                    setBit(plague, index, false);
+                    return;
+                default:
+                    // UNCHANGED and CHANCE are settled by the rules below.
+                    break;
+            }
+
+            if (type == ESCHERICHIA) {
+                if (outcome == TransitionTable.SURVIVE
+                        && energy.getShort(index) % Escherichia.GEN_TO_CHANGE_SHADE == 0) {
+                    int colour = colours.getInt(index);
+                    colours.putInt(index, Escherichia.calcNextColor(
+                            colour != NO_COLOUR ? colour : ESCHERICHIA_DEFAULT_COLOUR));
+                }
+                catchAndApplyPlague(index, row, col);
+            } else if (type == PHOTOBACTERIUM) {
+                if (wasAlive) {
+                    colours.putInt(index, randomColour(drawGeneration(), row, col));
+                }
+                if (typeCounts[MYCOPLASMA] == 0) {
+                    catchAndApplyPlague(index, row, col);
+                }
+            } else if (type == PSEUDOMONAS) {
+                colours.putInt(index, neighbourColours.getInt(mostCommonNeighbour(livingNeighbours(row, col))));
+                catchAndApplyPlague(index, row, col);
+            } else if (type == WOLBACHIA) {
+                wolbachiaChance(index, row, col, wasAlive);
+            }
+        }
+
+        /**
+         * The random part of Wolbachia.act: a living Wolbachia may die, and
+         * a dead one with living neighbours may come alive, possibly with the
+         * plague. A surviving Wolbachia keeps whatever next state it already had.
+         */
+        private void wolbachiaChance(long index, int row, int col, boolean wasAlive) {
+            position(drawGeneration(), row, col, Field.WOLBACHIA_STREAM);
+            double randomVal = rand.nextDouble();
+            if (wasAlive) {
+                if (randomVal < Wolbachia.PROB_TO_DIE) {
+                    die(index, WOLBACHIA);
+                }
+            } else {
+                boolean becomeAlive = randomVal < Wolbachia.PROB_TO_COME_ALIVE;
+                setBit(nextAlive, index, becomeAlive);
+                setBit(plague, index, becomeAlive && rand.nextDouble() < Wolbachia.PROB_TO_HAVE_PLAGUE);
+            }
+        }
+
+        /**
+         * Mark a square as dead in the next generation, as
+         * Cell.setStateEnergyColorAndDisease(false, ...) does. Its energy is
+         * reset to the maximum of its type; Escherichia go back to their
+         * default colour and Pseudomonas lose theirs.
+         */
+        private void die(long index, int type) {
+            setBit(nextAlive, index, false);
+            energy.putShort(index, (short) MAX_ENERGY[type]);
+            if (type == ESCHERICHIA) {
+                colours.putInt(index, ESCHERICHIA_DEFAULT_COLOUR);
+            } else if (type == PSEUDOMONAS) {
+                colours.putInt(index, NO_COLOUR);
+            }
+            setBit(plague, index, false);
+        }
+
+        /**
+         * The rules of Cell.catchAndApplyPlague.
+         */
+        private void catchAndApplyPlague(long index, int row, int col) {
+            if (getBit(alive, index) && getBit(nextAlive, index) && !getBit(plague, index)
+                    && position(drawGeneration(), row, col, Field.PLAGUE_STREAM).nextDouble()
+                            < Cell.CATCH_PLAGUE_PROBABILITY) {
+                setBit(plague, index, isNeighbourInfected(row, col));
+            }
+            if (getBit(plague, index)) {
+                colours.putInt(index, PLAGUE_COLOUR);
+                if (energy.getShort(index) > Cell.MAX_ENERGY_AFTER_PLAGUE) {
+                    energy.putShort(index, (short) Cell.MAX_ENERGY_AFTER_PLAGUE);
+                }
+            }
+        }
+
+        /**
+         * Load the maintained neighbour counts of a square into typeCounts.
+         * Not used when counting with bitboards.
+         *
+         * @return The number of living neighbours.
+         */
+        private int countNeighbours(long index) {
+            long first = index * TYPES.length;
+            for (int type = 0; type < typeCounts.length; type++) {
+                typeCounts[type] = neighbourCounts.getByte(first + type);
+            }
+            return livingCounts.getByte(index);
+        }
+
+        /**
+         * Return the type of the most common living neighbour, as
+         * Field.getMostCommonNeighbour would. When one type has strictly
+         * the most neighbours the counts decide it; only a tie needs the
+         * shuffled neighbours. Expects typeCounts to be loaded.
+         */
+        private int mostCommonType(int row, int col) {
+            int maxCount = 0;
+            int mostCommon = TransitionTable.NO_MAJORITY;
+            boolean tied = false;
+            for (int type = 0; type < typeCounts.length; type++) {
+                if (typeCounts[type] > maxCount) {
+                    maxCount = typeCounts[type];
+                    mostCommon = type;
+                    tied = false;
+                } else if (typeCounts[type] == maxCount && maxCount > 0) {
+                    tied = true;
+                }
+            }
+            return tied ? types.getByte(mostCommonNeighbour(livingNeighbours(row, col))) : mostCommon;
+        }
+
+        /**
+         * Check whether any living neighbour of a square has the plague.
+         */
+        private boolean isNeighbourInfected(int row, int col) {
+            int top = fieldTop(row);
+            for (int nextRow = Math.max(top, row - 1); nextRow <= Math.min(top + fieldDepth - 1, row + 1); nextRow++) {
+                for (int nextCol = Math.max(0, col - 1); nextCol <= Math.min(width - 1, col + 1); nextCol++) {
+                    long neighbour = indexOf(nextRow, nextCol);
+                    if ((nextRow != row || nextCol != col) && getBit(alive, neighbour)
+                            && getBit(neighbourPlague, neighbour)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Collect the living neighbours of a square into the scratch buffer,
+         * using the same two shuffles as Field.getLivingNeighbours, and count
+         * them by type.
+         *
+         * @return The number of living neighbours.
+         */
+        private int livingNeighbours(int row, int col) {
+            position(drawGeneration(), row, col, Field.NEIGHBOUR_STREAM);
+            int top = fieldTop(row);
+            int adjacentCount = 0;
+            for (int roffset = -1; roffset <= 1; roffset++) {
+                int nextRow = row + roffset;
+                if (nextRow >= top && nextRow < top + fieldDepth) {
+                    for (int coffset = -1; coffset <= 1; coffset++) {
+                        int nextCol = col + coffset;
+                        if (nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
+                            adjacent[adjacentCount++] = indexOf(nextRow, nextCol);
+                        }
+                    }
+                }
+            }
+            shuffle(adjacent, adjacentCount);
+
+            Arrays.fill(typeCounts, 0);
+            int count = 0;
+            for (int i = 0; i < adjacentCount; i++) {
+                long neighbour = adjacent[i];
+                if (getBit(alive, neighbour)) {
+                    living[count++] = neighbour;
+                    typeCounts[types.getByte(neighbour)]++;
+                }
+            }
+            shuffle(living, count);
+            return count;
+        }
+
+        /**
+         * Find the first living neighbour, in shuffled order, whose type is
+         * strictly the most common, as Field.getMostCommonNeighbour does.
+         *
+         * @return The square of the most common neighbour.
+         */
+        private long mostCommonNeighbour(int count) {
+            int maxCount = 0;
+            long mostCommon = -1;
+            for (int i = 0; i < count; i++) {
+                int typeCount = typeCounts[types.getByte(living[i])];
+                if (typeCount > maxCount) {
+                    maxCount = typeCount;
+                    mostCommon = living[i];
+                }
+            }
+            return mostCommon;
+        }
+
+        /**
+         * Shuffle the first n entries of an array with the same draws as
+         * Collections.shuffle.
+         */
+        private void shuffle(long[] values, int n) {
+            for (int i = n; i > 1; i--) {
+                int j = rand.nextInt(i);
+                long tmp = values[i - 1];
+                values[i - 1] = values[j];
+                values[j] = tmp;
+            }
+        }
+
+        /**
+         * Return a random opaque colour, drawn as the Photobacterium does.
+         */
+        int randomColour(int drawGeneration, int row, int col) {
+            return Photobacterium.randomColor(position(drawGeneration, row, col, Field.COLOUR_STREAM));
+        }
+    }
+
+    /**
+     * Return the generation the rules draw random numbers for while acting:
+     * the generation being computed, as Simulator sets it on a Field.
+     */
+    private int drawGeneration() {
+        return generation + 1;
+    }
+
+    /**
+     * Decrease the energy of a square by one. Energy saturates at the bottom
+     * of the short range; a negative energy never reaches zero again, so the
+     * rules behave as if it kept counting down.
+     */
+    private void decrementEnergy(long index) {
+        short left = energy.getShort(index);
+        if (left != Short.MIN_VALUE) {
+            energy.putShort(index, (short) (left - 1));
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int tmp = a % b;
+            a = b;
+            b = tmp;
+        }
+        return a;
+    }
+
+    private static boolean getBit(LongPages bits, long index) {
+        return (bits.getLong(index >>> 6) & (1L << index)) != 0;
+    }
+
+    private static void setBit(LongPages bits, long index, boolean value) {
+        long word = bits.getLong(index >>> 6);
+        bits.putLong(index >>> 6, value ? word | 1L << index : word & ~(1L << index));
+    }
+
+    /**
+     * Check whether the field can be stepped in parallel.
+     *
+     * @return true if neighbours are read as they were at the start of each
+     *         generation.
+     */
+    public boolean isSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * Check whether the field can be stepped in parallel.
+     *
+     * @return true if the field is synchronous.
+     * @deprecated Every field now has a seed; use isSynchronous().
+     */
+    @Deprecated
+    public boolean isSeeded() {
+        return synchronous;
+    }
+
+    /**
+     * Return where the state of the squares is kept.
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Return the seed all random draws are derived from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Check whether the cell at the given position is alive.
+     */
+    public boolean isAlive(int row, int col) {
+        return getBit(alive, indexOf(row, col));
+    }
+
+    /**
+     * Return the type of the cell at the given position.
+     */
+    public CellType getType(int row, int col) {
+        return TYPES[types.getByte(indexOf(row, col))];
+    }
+
+    /**
+     * Return the packed ARGB colour of the cell at the given position, or
+     * NO_COLOUR if it has none.
+     */
+    public int getColour(int row, int col) {
+        return colours.getInt(indexOf(row, col));
+    }
+
+    /**
+     * Return the energy left of the cell at the given position.
+     */
+    public int getEnergyLeft(int row, int col) {
+        long index = indexOf(row, col);
+        int tile = tileOf(index);
+        if (types.getByte(index) == WOLBACHIA && sleepingSince[tile] != AWAKE) {
+            return Math.max(Short.MIN_VALUE, energy.getShort(index) - (generation - sleepingSince[tile]));
+        }
+        return energy.getShort(index);
+    }
+
+    /**
+     * Check whether the cell at the given position has the plague.
+     */
+    public boolean hasPlague(int row, int col) {
+        return getBit(plague, indexOf(row, col));
+    }
+
+    /**
+     * Return the number of living cells of a type in one field of a batch.
+     *
+     * @param field    The field, 0 unless several are stacked.
+     * @param cellType The type of cell.
+     * @return The number of living cells of that type.
+     */
+    int getPopulation(int field, CellType cellType) {
+        return fieldLiving[field * TYPES.length + cellType.ordinal()];
+    }
+
+    /**
+     * Return the number of generations stepped since the field was populated.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Return the depth of the field.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Return the width of the field.
+     */
+    public int getWidth() {
+        return width;
+    }
+}
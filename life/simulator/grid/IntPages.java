@@ -0,0 +1,91 @@
+package life.simulator.grid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An array of 32-bit elements indexed by a long, on the heap or off it.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+abstract class IntPages extends Pages {
+    private IntPages(long length) {
+        super(length);
+    }
+
+    /**
+     * Allocate an array of zeroed elements.
+     *
+     * @param length The number of elements.
+     * @param direct Whether the pages are allocated outside the heap.
+     * @return The array.
+     */
+    static IntPages allocate(long length, boolean direct) {
+        return direct ? new Direct(length) : new Heap(heapLength(length));
+    }
+
+    abstract int getInt(long index);
+
+    abstract void putInt(long index, int value);
+
+    /**
+     * Copy every element of another array, of the same length and storage,
+     * into this one.
+     */
+    abstract void copyFrom(IntPages other);
+
+    private static final class Heap extends IntPages {
+        private final int[] elements;
+
+        Heap(int length) {
+            super(length);
+            elements = new int[length];
+        }
+
+        int getInt(long index) {
+            return elements[(int) index];
+        }
+
+        void putInt(long index, int value) {
+            elements[(int) index] = value;
+        }
+
+        void clear() {
+            Arrays.fill(elements, 0);
+        }
+
+        void copyFrom(IntPages other) {
+            System.arraycopy(((Heap) other).elements, 0, elements, 0, elements.length);
+        }
+    }
+
+    private static final class Direct extends IntPages {
+        private static final int PAGE_SHIFT = pageShift(Integer.BYTES);
+        private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+        private final ByteBuffer[] pages;
+
+        Direct(long length) {
+            super(length);
+            pages = allocateDirect(length, Integer.BYTES);
+        }
+
+        int getInt(long index) {
+            return pages[(int) (index >>> PAGE_SHIFT)].getInt((int) (index & PAGE_MASK) << 2);
+        }
+
+        void putInt(long index, int value) {
+            pages[(int) (index >>> PAGE_SHIFT)].putInt((int) (index & PAGE_MASK) << 2, value);
+        }
+
+        void clear() {
+            clear(pages);
+        }
+
+        void copyFrom(IntPages other) {
+            copy(((Direct) other).pages, pages);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package life.simulator.grid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An array of 64-bit elements indexed by a long, on the heap or off it.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+abstract class LongPages extends Pages {
+    private LongPages(long length) {
+        super(length);
+    }
+
+    /**
+     * Allocate an array of zeroed elements.
+     *
+     * @param length The number of elements.
+     * @param direct Whether the pages are allocated outside the heap.
+     * @return The array.
+     */
+    static LongPages allocate(long length, boolean direct) {
+        return direct ? new Direct(length) : new Heap(heapLength(length));
+    }
+
+    abstract long getLong(long index);
+
+    abstract void putLong(long index, long value);
+
+    /**
+     * Copy every element of another array, of the same length and storage,
+     * into this one.
+     */
+    abstract void copyFrom(LongPages other);
+
+    private static final class Heap extends LongPages {
+        private final long[] elements;
+
+        Heap(int length) {
+            super(length);
+            elements = new long[length];
+        }
+
+        long getLong(long index) {
+            return elements[(int) index];
+        }
+
+        void putLong(long index, long value) {
+            elements[(int) index] = value;
+        }
+
+        void clear() {
+            Arrays.fill(elements, 0);
+        }
+
+        void copyFrom(LongPages other) {
+            System.arraycopy(((Heap) other).elements, 0, elements, 0, elements.length);
+        }
+    }
+
+    private static final class Direct extends LongPages {
+        private static final int PAGE_SHIFT = pageShift(Long.BYTES);
+        private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+        private final ByteBuffer[] pages;
+
+        Direct(long length) {
+            super(length);
+            pages = allocateDirect(length, Long.BYTES);
+        }
+
+        long getLong(long index) {
+            return pages[(int) (index >>> PAGE_SHIFT)].getLong((int) (index & PAGE_MASK) << 3);
+        }
+
+        void putLong(long index, long value) {
+            pages[(int) (index >>> PAGE_SHIFT)].putLong((int) (index & PAGE_MASK) << 3, value);
+        }
+
+        void clear() {
+            clear(pages);
+        }
+
+        void copyFrom(LongPages other) {
+            copy(((Direct) other).pages, pages);
+        }
+    }
+}
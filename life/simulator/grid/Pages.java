@@ -0,0 +1,109 @@
+package life.simulator.grid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An array of fixed-size elements indexed by a long. On the heap the
+ * elements are kept in an ordinary primitive array, which holds at most
+ * Integer.MAX_VALUE of them. Off the heap they are kept in pages of direct
+ * ByteBuffers, each small enough to be indexed by an int, so there can be
+ * any number of them. Direct pages are not copied or scanned by the garbage
+ * collector, and the heap only needs room for the page objects.
+ *
+ * Each element width has its own subclass, BytePages, ShortPages, IntPages
+ * or LongPages, with one implementation on the heap and one off it, chosen
+ * once when the array is allocated. A field of one of those types only
+ * offers the accessors of its width, and an access is a plain array access
+ * on the heap, with nothing to decide first.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+abstract class Pages {
+    // The number of bytes in a full page, as a power of two.
+    private static final int PAGE_BITS = 30;
+    // The most elements an array on the heap can hold.
+    private static final long MAX_HEAP_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final long length;
+
+    Pages(long length) {
+        this.length = length;
+    }
+
+    /**
+     * Return the number of elements.
+     */
+    final long length() {
+        return length;
+    }
+
+    /**
+     * Set every element to zero.
+     */
+    abstract void clear();
+
+    /**
+     * Return the length of an array on the heap holding the given number of
+     * elements.
+     *
+     * @throws IllegalArgumentException If an array cannot hold that many.
+     */
+    static int heapLength(long length) {
+        if (length > MAX_HEAP_LENGTH) {
+            throw new IllegalArgumentException("Too large for the heap: " + length + " elements.");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Return the number of elements in a full direct page, as a power of
+     * two.
+     *
+     * @param elementSize The size of an element in bytes: 1, 2, 4 or 8.
+     */
+    static int pageShift(int elementSize) {
+        return PAGE_BITS - Integer.numberOfTrailingZeros(elementSize);
+    }
+
+    /**
+     * Allocate the zeroed direct pages of an array.
+     *
+     * @param length      The number of elements.
+     * @param elementSize The size of an element in bytes.
+     * @return The pages, all full but the last.
+     */
+    static ByteBuffer[] allocateDirect(long length, int elementSize) {
+        int pageShift = pageShift(elementSize);
+        long pageMask = (1L << pageShift) - 1;
+        ByteBuffer[] pages = new ByteBuffer[(int) Math.max(1, (length + pageMask) >>> pageShift)];
+        for (int page = 0; page < pages.length; page++) {
+            long elements = Math.min(length - ((long) page << pageShift), 1L << pageShift);
+            pages[page] = ByteBuffer.allocateDirect((int) (elements * elementSize)).order(ByteOrder.nativeOrder());
+        }
+        return pages;
+    }
+
+    /**
+     * Set every byte of direct pages to zero.
+     */
+    static void clear(ByteBuffer[] pages) {
+        byte[] zeros = new byte[1 << 16];
+        for (ByteBuffer page : pages) {
+            for (int at = 0; at < page.capacity(); at += zeros.length) {
+                page.put(at, zeros, 0, Math.min(zeros.length, page.capacity() - at));
+            }
+        }
+    }
+
+    /**
+     * Copy direct pages into others of the same sizes.
+     */
+    static void copy(ByteBuffer[] from, ByteBuffer[] to) {
+        for (int page = 0; page < to.length; page++) {
+            to[page].put(0, from[page], 0, to[page].capacity());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package life.simulator.grid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An array of 16-bit elements indexed by a long, on the heap or off it.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+abstract class ShortPages extends Pages {
+    private ShortPages(long length) {
+        super(length);
+    }
+
+    /**
+     * Allocate an array of zeroed elements.
+     *
+     * @param length The number of elements.
+     * @param direct Whether the pages are allocated outside the heap.
+     * @return The array.
+     */
+    static ShortPages allocate(long length, boolean direct) {
+        return direct ? new Direct(length) : new Heap(heapLength(length));
+    }
+
+    abstract short getShort(long index);
+
+    abstract void putShort(long index, short value);
+
+    /**
+     * Copy every element of another array, of the same length and storage,
+     * into this one.
+     */
+    abstract void copyFrom(ShortPages other);
+
+    private static final class Heap extends ShortPages {
+        private final short[] elements;
+
+        Heap(int length) {
+            super(length);
+            elements = new short[length];
+        }
+
+        short getShort(long index) {
+            return elements[(int) index];
+        }
+
+        void putShort(long index, short value) {
+            elements[(int) index] = value;
+        }
+
+        void clear() {
+            Arrays.fill(elements, (short) 0);
+        }
+
+        void copyFrom(ShortPages other) {
+            System.arraycopy(((Heap) other).elements, 0, elements, 0, elements.length);
+        }
+    }
+
+    private static final class Direct extends ShortPages {
+        private static final int PAGE_SHIFT = pageShift(Short.BYTES);
+        private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+        private final ByteBuffer[] pages;
+
+        Direct(long length) {
+            super(length);
+            pages = allocateDirect(length, Short.BYTES);
+        }
+
+        short getShort(long index) {
+            return pages[(int) (index >>> PAGE_SHIFT)].getShort((int) (index & PAGE_MASK) << 1);
+        }
+
+        void putShort(long index, short value) {
+            pages[(int) (index >>> PAGE_SHIFT)].putShort((int) (index & PAGE_MASK) << 1, value);
+        }
+
+        void clear() {
+            clear(pages);
+        }
+
+        void copyFrom(ShortPages other) {
+            copy(((Direct) other).pages, pages);
+        }
+    }
+}
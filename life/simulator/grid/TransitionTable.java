@@ -0,0 +1,149 @@
+package life.simulator.grid;
+
+import life.model.CellType;
+import life.model.cells.Escherichia;
+import life.model.cells.Mycoplasma;
+import life.model.cells.Photobacterium;
+import life.model.cells.Pseudomonas;
+
+/**
+ * The survive and birth decisions of the built-in cell rules, worked out once
+ * for every combination of a square's type, whether it is alive, its number
+ * of living neighbours, the type of its most common neighbour and whether its
+ * energy has run out. GridField looks the outcome up instead of walking the
+ * branches of each act method. The random and plague effects of the rules are
+ * not part of the table and are applied afterwards.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+final class TransitionTable {
+    // The square keeps its current state.
+    static final byte SURVIVE = 0;
+    // The square is alive in the next generation.
+    static final byte BIRTH = 1;
+    // The square dies, resetting its energy, colour and plague.
+    static final byte DIE = 2;
+    // The square is dead in the next generation and loses its plague, but
+    // keeps its energy and colour.
+    static final byte VANISH = 3;
+    // The next state is left as it was.
+    static final byte UNCHANGED = 4;
+    // The next state depends on a random draw.
+    static final byte CHANCE = 5;
+
+    // Stands for the most common neighbour of a square with no neighbours.
+    static final int NO_MAJORITY = CellType.values().length;
+
+    private static final int TYPES = CellType.values().length;
+    private static final int COUNTS = 9;
+    private static final int MAJORITIES = TYPES + 1;
+
+    private static final byte[] OUTCOMES = new byte[TYPES * 2 * COUNTS * MAJORITIES * 2];
+
+    static {
+        for (CellType type : CellType.values()) {
+            for (int alive = 0; alive < 2; alive++) {
+                for (int count = 0; count < COUNTS; count++) {
+                    for (int majority = 0; majority < MAJORITIES; majority++) {
+                        for (int exhausted = 0; exhausted < 2; exhausted++) {
+                            OUTCOMES[index(type.ordinal(), alive == 1, count, majority, exhausted == 1)] =
+                                    decide(type, alive == 1, count, majority, exhausted == 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private TransitionTable() {
+    }
+
+    /**
+     * Return the outcome of the rules for one square.
+     *
+     * @param type      The type ordinal of the square.
+     * @param alive     Whether the square is alive.
+     * @param count     The number of living neighbours.
+     * @param majority  The type ordinal of the most common neighbour, or
+     *                  NO_MAJORITY. Only Photobacterium depends on it.
+     * @param exhausted Whether the square's energy has run out this
+     *                  generation.
+     * @return One of the outcome constants.
+     */
+    static byte outcome(int type, boolean alive, int count, int majority, boolean exhausted) {
+        return OUTCOMES[index(type, alive, count, majority, exhausted)];
+    }
+
+    private static int index(int type, boolean alive, int count, int majority, boolean exhausted) {
+        return (((type * 2 + (alive ? 1 : 0)) * COUNTS + count) * MAJORITIES + majority) * 2 + (exhausted ? 1 : 0);
+    }
+
+    /**
+     * Work out one entry of the table by following the act method of the
+     * square's type.
+     */
+    private static byte decide(CellType type, boolean alive, int count, int majority, boolean exhausted) {
+        switch (type) {
+            case MYCOPLASMA:
+                return exhausted ? DIE : lifeRules(count, Mycoplasma.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Mycoplasma.MAX_NEIGHBOUR_TO_SURVIVE, Mycoplasma.NEIGHBOUR_TO_REBIRTH);
+            case ESCHERICHIA:
+                return exhausted ? DIE : lifeRules(count, Escherichia.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Escherichia.MAX_NEIGHBOUR_TO_SURVIVE, Escherichia.NEIGHBOUR_TO_REBIRTH);
+            case PSEUDOMONAS:
+                return exhausted || count == 0 ? DIE : lifeRules(count, Pseudomonas.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Pseudomonas.MAX_NEIGHBOUR_TO_SURVIVE, Pseudomonas.NEIGHBOUR_TO_REBIRTH);
+            case PHOTOBACTERIUM:
+                return photobacteriumRules(count, majority);
+            case WOLBACHIA:
+                if (alive) {
+                    return exhausted || count == 0 ? DIE : CHANCE;
+                }
+                return count == 0 ? VANISH : CHANCE;
+            default:
+                throw new IllegalArgumentException("Unknown cell type " + type);
+        }
+    }
+
+    /**
+     * Photobacterium borrows the rules of its most common neighbour, and
+     * leaves its next state alone when that neighbour is a Wolbachia.
+     */
+    private static byte photobacteriumRules(int count, int majority) {
+        if (count == 0) {
+            return VANISH;
+        }
+        if (majority == NO_MAJORITY) {
+            // Cannot happen: a square with neighbours has a most common one.
+            return UNCHANGED;
+        }
+        switch (CellType.values()[majority]) {
+            case PHOTOBACTERIUM:
+                return lifeRules(count, Photobacterium.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Photobacterium.MAX_NEIGHBOUR_TO_SURVIVE, Photobacterium.NEIGHBOUR_TO_REBIRTH);
+            case MYCOPLASMA:
+                return lifeRules(count, Mycoplasma.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Mycoplasma.MAX_NEIGHBOUR_TO_SURVIVE, Mycoplasma.NEIGHBOUR_TO_REBIRTH);
+            case PSEUDOMONAS:
+                return lifeRules(count, Pseudomonas.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Pseudomonas.MAX_NEIGHBOUR_TO_SURVIVE, Pseudomonas.NEIGHBOUR_TO_REBIRTH);
+            case ESCHERICHIA:
+                return lifeRules(count, Escherichia.MIN_NEIGHBOUR_TO_SURVIVE,
+                        Escherichia.MAX_NEIGHBOUR_TO_SURVIVE, Escherichia.NEIGHBOUR_TO_REBIRTH);
+            default:
+                return UNCHANGED;
+        }
+    }
+
+    /**
+     * The survive and rebirth rule shared by the cell types.
+     */
+    private static byte lifeRules(int count, int minNeighbour, int maxNeighbour, int rebirthNeighbour) {
+        if (count < minNeighbour || count > maxNeighbour) {
+            return DIE;
+        }
+        return count == rebirthNeighbour ? BIRTH : SURVIVE;
+    }
+}
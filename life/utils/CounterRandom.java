@@ -0,0 +1,154 @@
+package life.utils;
+
+import java.util.Random;
+
+/**
+ * A random generator whose draws are a pure function of a seed, a position
+ * and a draw index, rather than of a shared evolving state. Each draw hashes
+ * (seed, generation, row, col, stream, draw), so the numbers a cell gets do
+ * not depend on how many numbers other cells drew before it, or on which
+ * thread it runs on.
+ *
+ * An instance is a cursor: position() selects the cell and stream, and every
+ * following draw advances the draw index. Instances are cheap to reposition
+ * but are not thread-safe; use one per thread.
+ *
+ * nextInt(bound) and nextDouble() each consume exactly one draw, so the k-th
+ * number of a stream can also be computed directly with hash().
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class CounterRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private static final long GENERATION_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long STREAM_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    // The seed all draws are derived from.
+    private final long seed;
+
+    // Hash of the current position, and the index of the next draw.
+    private long base;
+    private int draw;
+
+    /**
+     * Create a generator for the given seed, positioned at generation 0,
+     * row 0, column 0, stream 0.
+     *
+     * @param seed The seed all draws are derived from.
+     */
+    public CounterRandom(long seed) {
+        super(seed);
+        this.seed = seed;
+        position(0, 0, 0, 0);
+    }
+
+    /**
+     * Move the cursor to the first draw of a cell's stream.
+     *
+     * @param generation The generation the draws are for.
+     * @param row        The row of the cell.
+     * @param col        The column of the cell.
+     * @param stream     Which of the cell's independent streams to draw from.
+     * @return This generator.
+     */
+    public CounterRandom position(long generation, int row, int col, int stream) {
+        base = positionHash(seed, generation, row, col, stream);
+        draw = 0;
+        return this;
+    }
+
+    /**
+     * Return the seed of this generator.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Return the raw 64 random bits of one draw.
+     *
+     * @param seed       The seed.
+     * @param generation The generation the draw is for.
+     * @param row        The row of the cell.
+     * @param col        The column of the cell.
+     * @param stream     The cell's stream.
+     * @param draw       The index of the draw within the stream.
+     * @return The random bits.
+     */
+    public static long hash(long seed, long generation, int row, int col, int stream, int draw) {
+        return mix(positionHash(seed, generation, row, col, stream) + draw);
+    }
+
+    /**
+     * Convert the bits of a draw to a double in [0, 1), as nextDouble() does.
+     *
+     * @param bits The random bits.
+     * @return The double.
+     */
+    public static double toDouble(long bits) {
+        return (bits >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Convert the bits of a draw to an int in [0, bound), as nextInt(bound)
+     * does.
+     *
+     * @param bits  The random bits.
+     * @param bound The exclusive upper bound, which must be positive.
+     * @return The int.
+     */
+    public static int toInt(long bits, int bound) {
+        return (int) (((bits >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextBits() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        return toInt(nextBits(), bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return toDouble(nextBits());
+    }
+
+    @Override
+    public long nextLong() {
+        return nextBits();
+    }
+
+    /**
+     * Return the bits of the next draw and advance the draw index.
+     */
+    private long nextBits() {
+        return mix(base + draw++);
+    }
+
+    private static long positionHash(long seed, long generation, int row, int col, int stream) {
+        long h = mix(seed ^ generation * GENERATION_MULTIPLIER);
+        h = mix(h ^ (((long) row << 32) | (col & 0xFFFFFFFFL)));
+        return mix(h ^ stream * STREAM_MULTIPLIER);
+    }
+
+    /**
+     * The SplitMix64 finaliser.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,76 @@
+package life.utils;
+
+import java.awt.Color;
+
+/**
+ * Helpers for colours packed into a single int as ARGB, the way cells store
+ * their colour. A packed colour needs no object, so changing the colour of a
+ * cell never allocates. The value NONE stands for a cell without a colour.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public final class Palette {
+    // A cell without a colour. Fully transparent, so it never matches an
+    // opaque colour.
+    public static final int NONE = 0;
+
+    private static final int OPAQUE = 0xFF000000;
+
+    private Palette() {
+    }
+
+    /**
+     * Pack an opaque colour from its components.
+     *
+     * @param red   The red component, 0 to 255.
+     * @param green The green component, 0 to 255.
+     * @param blue  The blue component, 0 to 255.
+     * @return The packed colour.
+     */
+    public static int rgb(int red, int green, int blue) {
+        return OPAQUE | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Pack a java.awt.Color.
+     *
+     * @param color The colour, or null.
+     * @return The packed colour, or NONE for null.
+     */
+    public static int of(Color color) {
+        return color == null ? NONE : color.getRGB();
+    }
+
+    /**
+     * Unpack a colour into a java.awt.Color.
+     *
+     * @param colour The packed colour.
+     * @return The colour, or null for NONE.
+     */
+    public static Color toColor(int colour) {
+        return colour == NONE ? null : new Color(colour, true);
+    }
+
+    /**
+     * Return the red component of a packed colour.
+     */
+    public static int red(int colour) {
+        return (colour >> 16) & 0xFF;
+    }
+
+    /**
+     * Return the green component of a packed colour.
+     */
+    public static int green(int colour) {
+        return (colour >> 8) & 0xFF;
+    }
+
+    /**
+     * Return the blue component of a packed colour.
+     */
+    public static int blue(int colour) {
+        return colour & 0xFF;
+    }
+}
@@ -35,6 +35,15 @@ public class Randomizer {
         }
     }
 
+    /**
+     * Return the seed the simulation's random draws are derived from.
+     * 
+     * @return The seed.
+     */
+    public static long getSeed() {
+        return SEED;
+    }
+
     /**
      * Reset the randomization.
      * This will have no effect if randomization is not through
@@ -0,0 +1,148 @@
+package life.view;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Draws a field into a BufferedImage by writing pixels straight into its
+ * int[] raster. The colour of every cell is handed in each frame, but only the
+ * cells whose colour changed since the last frame are written, and only the
+ * area they cover is reported as needing a repaint. Large fields are written
+ * in bands of rows in parallel.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class FieldRaster {
+    // The number of cells from which a frame is written in parallel bands.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // The number of rows in each band of a parallel frame.
+    private static final int BAND_ROWS = 32;
+    // Marks a cell that has not been drawn since the image was created.
+    private static final int UNDRAWN = 0x00FFFFFF;
+
+    private final int depth, width;
+    // The colour each cell should have in the next frame.
+    private final int[] next;
+    // The colour each cell has in the image.
+    private final int[] shown;
+
+    private int xScale, yScale;
+    private BufferedImage image;
+    private int[] pixels;
+
+    /**
+     * Create a raster for a field of the given dimensions. setScale must be
+     * called before the first frame is rendered.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public FieldRaster(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        next = new int[depth * width];
+        shown = new int[depth * width];
+    }
+
+    /**
+     * Create a new image with the given number of pixels per cell. Every
+     * cell is drawn again in the next frame.
+     *
+     * @param xScale     The width of a cell in pixels, including a one pixel
+     *                   gap.
+     * @param yScale     The height of a cell in pixels, including a one pixel
+     *                   gap.
+     * @param background The packed colour of the gaps between cells.
+     */
+    public void setScale(int xScale, int yScale, int background) {
+        this.xScale = xScale;
+        this.yScale = yScale;
+        image = new BufferedImage(width * xScale, depth * yScale, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, background);
+        Arrays.fill(shown, UNDRAWN);
+    }
+
+    /**
+     * Set the colour a cell should have in the next frame.
+     *
+     * @param row    The row of the cell.
+     * @param col    The column of the cell.
+     * @param colour The packed colour.
+     */
+    public void setCell(int row, int col, int colour) {
+        next[row * width + col] = colour;
+    }
+
+    /**
+     * Set the colours every cell should have in the next frame.
+     *
+     * @param colours The packed colours, row by row.
+     */
+    public void setCells(int[] colours) {
+        System.arraycopy(colours, 0, next, 0, next.length);
+    }
+
+    /**
+     * Write every cell whose colour changed into the image.
+     *
+     * @param dirty Told about each area of the image that changed. It may be
+     *              called from several threads at once.
+     */
+    public void render(Consumer<Rectangle> dirty) {
+        if ((long) depth * width < PARALLEL_THRESHOLD) {
+            renderRows(0, depth, dirty);
+        } else {
+            int bands = (depth + BAND_ROWS - 1) / BAND_ROWS;
+            IntStream.range(0, bands).parallel().forEach(
+                    band -> renderRows(band * BAND_ROWS, Math.min(depth, (band + 1) * BAND_ROWS), dirty));
+        }
+    }
+
+    /**
+     * Write the changed cells of a band of rows and report the rectangle
+     * around them.
+     */
+    private void renderRows(int fromRow, int toRow, Consumer<Rectangle> dirty) {
+        int imageWidth = width * xScale;
+        int minRow = Integer.MAX_VALUE, maxRow = -1, minCol = Integer.MAX_VALUE, maxCol = -1;
+        for (int row = fromRow; row < toRow; row++) {
+            int index = row * width;
+            for (int col = 0; col < width; col++, index++) {
+                int colour = next[index];
+                if (colour == shown[index]) {
+                    continue;
+                }
+                shown[index] = colour;
+                int start = row * yScale * imageWidth + col * xScale;
+                for (int y = 0; y < yScale - 1; y++) {
+                    Arrays.fill(pixels, start, start + xScale - 1, colour);
+                    start += imageWidth;
+                }
+                minRow = Math.min(minRow, row);
+                maxRow = row;
+                minCol = Math.min(minCol, col);
+                maxCol = Math.max(maxCol, col);
+            }
+        }
+        if (maxRow >= 0) {
+            dirty.accept(new Rectangle(minCol * xScale, minRow * yScale,
+                    (maxCol - minCol + 1) * xScale, (maxRow - minRow + 1) * yScale));
+        }
+    }
+
+    /**
+     * Return the image the field is drawn into.
+     *
+     * @return The image, or null before setScale is called.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+}
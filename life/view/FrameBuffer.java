@@ -0,0 +1,128 @@
+package life.view;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import life.model.Cell;
+import life.simulator.Field;
+import life.utils.Palette;
+
+/**
+ * Hands the status of each generation from the simulation to the thread that
+ * draws it. Each generation is copied into a frame and published; the drawing
+ * thread takes the latest published frame when it is ready for one, so frames
+ * overtaken in between are dropped and the simulation never waits for the
+ * screen. Three frames take turns: one being filled by the simulation, one
+ * waiting to be shown and one being shown.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+public class FrameBuffer {
+    // The colour of a location without a living cell.
+    private final int emptyColour;
+
+    // The latest published frame, waiting to be shown.
+    private final AtomicReference<Frame> latestFrame;
+    // The frame being filled by the simulation.
+    private Frame backFrame;
+    // The frame being shown; only used by the drawing thread.
+    private Frame frontFrame;
+    // The number of frames published so far.
+    private long framesPublished;
+
+    /**
+     * Create the frames for a field of the given dimensions.
+     *
+     * @param height      The height of the field.
+     * @param width       The width of the field.
+     * @param emptyColour The packed colour of a location without a living
+     *                    cell.
+     */
+    public FrameBuffer(int height, int width, int emptyColour) {
+        this.emptyColour = emptyColour;
+        latestFrame = new AtomicReference<>(new Frame(height, width));
+        backFrame = new Frame(height, width);
+        frontFrame = new Frame(height, width);
+    }
+
+    /**
+     * Copy the status of a generation into a frame and publish it. Called by
+     * the simulation.
+     *
+     * @param generation The current generation.
+     * @param field      The field whose status is to be shown.
+     */
+    public synchronized void publish(int generation, Field field) {
+        int[] colours = backFrame.colours;
+        int index = 0;
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++, index++) {
+                Cell cell = field.getObjectAt(row, col);
+
+                if (cell != null && cell.isAlive()) {
+                    colours[index] = cell.getColor() == Palette.NONE ? emptyColour : cell.getColor();
+                } else {
+                    colours[index] = emptyColour;
+                }
+            }
+        }
+
+        backFrame.generation = generation;
+        backFrame.population = field.getStats().getPopulationDetails(field);
+        backFrame.sequence = ++framesPublished;
+        // Publish the frame and take back whichever frame it replaces.
+        backFrame = latestFrame.getAndSet(backFrame);
+    }
+
+    /**
+     * Take the latest published frame, if it has not been taken yet. Called
+     * by the drawing thread, which may use the frame until its next call.
+     *
+     * @return The frame to show, or null if nothing new was published.
+     */
+    public Frame takeLatest() {
+        if (latestFrame.get().sequence <= frontFrame.sequence) {
+            return null;
+        }
+        frontFrame = latestFrame.getAndSet(frontFrame);
+        return frontFrame;
+    }
+
+    /**
+     * The status of one generation.
+     */
+    public static class Frame {
+        // The packed colour of every location, row by row.
+        private final int[] colours;
+        private int generation;
+        private String population = "";
+        // The order in which frames were published; 0 if never published.
+        private long sequence;
+
+        private Frame(int height, int width) {
+            colours = new int[height * width];
+        }
+
+        /**
+         * Return the packed colour of every location, row by row.
+         */
+        public int[] getColours() {
+            return colours;
+        }
+
+        /**
+         * Return the generation the frame shows.
+         */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Return the living cells of each type, as FieldStats describes them.
+         */
+        public String getPopulation() {
+            return population;
+        }
+    }
+}
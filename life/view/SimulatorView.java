@@ -5,48 +5,97 @@ import javax.swing.*;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.reflect.InvocationTargetException;
 import javax.swing.JButton;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 import life.simulator.Field;
-import life.simulator.FieldStats;
-import life.model.Cell;
+import life.simulator.SimulationView;
 import life.simulator.Simulator;
+import life.utils.Palette;
 
 /**
  * This class is responsible for the simulator GUI and controls.
  *
+ * The simulation does not wait for the screen. Each generation it reports is
+ * published to a FrameBuffer; a timer on the event dispatch thread picks up
+ * the latest published frame at most REFRESH_RATE times a second and draws
+ * it, dropping any frames that were overtaken in between.
+ *
  * @author David J. Barnes, Michael Kölling, Jeffery Raphael, Ahmet Kucuk, Kota
  *         Amemiya & Mohammed Fohpa
  * @version 2023.02.16 (2)
  */
 
-public class SimulatorView extends JFrame {
+public class SimulatorView extends JFrame implements SimulationView {
 
     // Constants
-    private static final Color EMPTY_COLOR = Color.white;
+    private static final int EMPTY_COLOR = Palette.of(Color.white);
     private final String GENERATION_PREFIX = "Generation: ";
     private final String POPULATION_PREFIX = "Population: ";
+    // The most frames drawn per second.
+    private static final int REFRESH_RATE = 60;
 
     private boolean isSimulationRunning = false;
     private JLabel genLabel, population, infoLabel;
     private FieldView fieldView;
-    private FieldStats stats;
     private JButton startButton;
     private JButton randomButton;
     private JButton stepButton;
     private JSlider delaySlider;
 
+    // The frames handed from the simulation to the event dispatch thread.
+    private final FrameBuffer frames;
+    // Draws the latest frame REFRESH_RATE times a second while the window is
+    // open.
+    private final Timer refreshTimer;
+
     /**
-     * Constructs a SimulatorView object.
+     * Constructs a SimulatorView object. The window is built and shown on
+     * the event dispatch thread, and this returns once it has been.
      *
      * @param height    The height of the field.
      * @param width     The width of the field.
      * @param simulator The simulator object to control.
      */
     public SimulatorView(int height, int width, Simulator simulator) {
-        stats = new FieldStats();
+        frames = new FrameBuffer(height, width, EMPTY_COLOR);
+        refreshTimer = new Timer(1000 / REFRESH_RATE, e -> showLatestFrame());
+        runOnEventDispatchThread(() -> buildWindow(height, width, simulator));
+    }
+
+    /**
+     * Run a task on the event dispatch thread and wait for it to finish.
+     */
+    private static void runOnEventDispatchThread(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening the window.", e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Could not open the window.", e.getCause());
+        }
+    }
+
+    /**
+     * Build the window and its controls, show it and start drawing frames
+     * into it. Runs on the event dispatch thread.
+     */
+    private void buildWindow(int height, int width, Simulator simulator) {
         fieldView = new FieldView(height, width);
 
         // Set up window.
@@ -130,46 +179,60 @@ public class SimulatorView extends JFrame {
 
         pack();
         setVisible(true);
+
+        addWindowListener(new WindowAdapter() {
+            public void windowClosing(WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        refreshTimer.start();
+    }
+
+    /**
+     * Release the window, and stop drawing frames into it.
+     */
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
     }
 
     /**
      * Display a short information label at the top of the window.
      */
     public void setInfoText(String text) {
-        infoLabel.setText(text);
+        SwingUtilities.invokeLater(() -> infoLabel.setText(text));
     }
 
     /**
-     * Show the current status of the field.
+     * Show the current status of the field. The status is copied into a
+     * frame and published for the event dispatch thread to draw, so this
+     * returns without waiting for the screen.
      * 
      * @param generation The current generation.
      * @param field      The field whose status is to be displayed.
      */
     public void showStatus(int generation, Field field) {
+        frames.publish(generation, field);
+    }
+
+    /**
+     * Draw the latest published frame, if it has not been drawn yet. Runs on
+     * the event dispatch thread.
+     */
+    private void showLatestFrame() {
+        FrameBuffer.Frame frame = frames.takeLatest();
+        if (frame == null) {
+            return;
+        }
+
         if (!isVisible()) {
             setVisible(true);
         }
-
-        genLabel.setText(GENERATION_PREFIX + generation);
-        stats.reset();
+        genLabel.setText(GENERATION_PREFIX + frame.getGeneration());
+        population.setText(POPULATION_PREFIX + frame.getPopulation());
         fieldView.preparePaint();
-
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Cell cell = field.getObjectAt(row, col);
-
-                if (cell != null && cell.isAlive()) {
-                    stats.incrementCount(cell.getClass());
-                    fieldView.drawMark(col, row, cell.getColor());
-                } else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
-                }
-            }
-        }
-
-        stats.countFinished();
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
-        fieldView.repaint();
+        fieldView.drawFrame(frame.getColours());
+        fieldView.render();
     }
 
     /**
@@ -178,7 +241,7 @@ public class SimulatorView extends JFrame {
      * @return true If there is more than one species alive.
      */
     public boolean isViable(Field field) {
-        return stats.isViable(field);
+        return field.getStats().isViable(field);
     }
 
     /**
@@ -194,8 +257,7 @@ public class SimulatorView extends JFrame {
         private int gridWidth, gridHeight;
         private int xScale, yScale;
         Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        private final FieldRaster raster;
 
         /**
          * Create a new FieldView component.
@@ -204,6 +266,7 @@ public class SimulatorView extends JFrame {
             gridHeight = height;
             gridWidth = width;
             size = new Dimension(0, 0);
+            raster = new FieldRaster(height, width);
         }
 
         /**
@@ -221,8 +284,6 @@ public class SimulatorView extends JFrame {
         public void preparePaint() {
             if (!size.equals(getSize())) { // if the size has changed...
                 size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
 
                 xScale = size.width / gridWidth;
                 if (xScale < 1) {
@@ -232,15 +293,24 @@ public class SimulatorView extends JFrame {
                 if (yScale < 1) {
                     yScale = GRID_VIEW_SCALING_FACTOR;
                 }
+                raster.setScale(xScale, yScale, getBackground().getRGB());
             }
         }
 
         /**
-         * Paint on grid location on this field in a given color.
+         * Set the packed colors of every grid location for the next frame,
+         * row by row.
+         */
+        public void drawFrame(int[] colors) {
+            raster.setCells(colors);
+        }
+
+        /**
+         * Write the grid locations whose color changed into the image and
+         * repaint only the area they cover.
          */
-        public void drawMark(int x, int y, Color color) {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale - 1, yScale - 1);
+        public void render() {
+            raster.render(area -> repaint(area));
         }
 
         /**
@@ -248,6 +318,8 @@ public class SimulatorView extends JFrame {
          * internal image to screen.
          */
         public void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Image fieldImage = raster.getImage();
             if (fieldImage != null) {
                 Dimension currentSize = getSize();
                 if (size.equals(currentSize)) {
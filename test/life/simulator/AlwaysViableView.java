@@ -0,0 +1,19 @@
+package life.simulator;
+
+/**
+ * A view that shows nothing and always lets the simulation carry on, so a
+ * test can run a set number of generations whatever happens to the field.
+ * Tests that need to see each generation override showStatus.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class AlwaysViableView implements SimulationView {
+    public void showStatus(int generation, Field field) {
+    }
+
+    public final boolean isViable(Field field) {
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import life.model.CellType;
+
+/**
+ * Checks that a simulation split between worker processes gives the same
+ * results as a Simulator with the same seed.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class DistributedRunnerTest {
+    private static final long SEED = 1111;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void oneWorkerMatchesSimulator() throws IOException {
+        assertMatchesSimulator(30, 40, 1, 60);
+    }
+
+    @Test
+    void severalWorkersMatchSimulator() throws IOException {
+        assertMatchesSimulator(31, 40, 3, 60);
+    }
+
+    @Test
+    void oneRowStripsMatchSimulator() throws IOException {
+        assertMatchesSimulator(4, 50, 4, 40);
+    }
+
+    /**
+     * Simulate a field in a Simulator and in a DistributedRunner, and check
+     * that the statistics, state hashes, cycle periods and snapshots agree
+     * after the first generation and after the last.
+     */
+    private void assertMatchesSimulator(int depth, int width, int numWorkers, int generations) throws IOException {
+        Simulator simulator = new Simulator(depth, width, SEED, new AlwaysViableView());
+        try (DistributedRunner runner = new DistributedRunner(depth, width, SEED, numWorkers)) {
+            assertSameState(simulator, runner);
+            simulator.simulate(1);
+            runner.simulate(1);
+            assertSameState(simulator, runner);
+            simulator.simulate(generations - 1);
+            runner.simulate(generations - 1);
+            assertSameState(simulator, runner);
+        }
+    }
+
+    private void assertSameState(Simulator simulator, DistributedRunner runner) throws IOException {
+        Field field = simulator.getField();
+        assertEquals(field.getGeneration(), runner.getGeneration());
+        assertEquals(field.getStateHash(), runner.getStateHash());
+        assertEquals(simulator.getCyclePeriod(), runner.getCyclePeriod());
+        for (CellType type : CellType.values()) {
+            assertEquals(field.getStats().getPopulation(type), runner.getStats().getPopulation(type),
+                    type.toString());
+            assertEquals(field.getStats().getPlagued(type), runner.getStats().getPlagued(type), type.toString());
+        }
+
+        Path single = dir.resolve("single.snap");
+        Path distributed = dir.resolve("distributed.snap");
+        FieldSnapshot.save(field, single);
+        runner.save(distributed);
+        assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(distributed),
+                "generation " + field.getGeneration());
+    }
+}
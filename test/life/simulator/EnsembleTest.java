@@ -0,0 +1,105 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.CellType;
+
+/**
+ * Checks that an Ensemble gives each run the result it would have on its
+ * own, hands every result over once and reports a failed run.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class EnsembleTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void oneThreadMatchesLoneSimulators() throws InterruptedException {
+        checkRuns(1, 4);
+    }
+
+    @Test
+    void concurrentRunsMatchLoneSimulators() throws InterruptedException {
+        checkRuns(3, 10);
+    }
+
+    @Test
+    void fieldDyingInItsLastGenerationIsExtinct() throws InterruptedException {
+        // This 3 by 3 field dies out after a few generations.
+        long seed = 16;
+        Simulator alone = lone(3, 3, seed, 500);
+        assertFalse(alone.getField().getStats().isViable(alone.getField()));
+        int lastGeneration = alone.getGeneration();
+        assertTrue(lastGeneration > 0);
+
+        List<Ensemble.Result> results = new ArrayList<>();
+        try (Ensemble ensemble = new Ensemble(1)) {
+            ensemble.run(List.of(new Ensemble.Run(3, 3, lastGeneration, seed)), results::add);
+        }
+        assertEquals(lastGeneration, results.get(0).getGeneration());
+        assertEquals(lastGeneration, results.get(0).getExtinctGeneration());
+    }
+
+    @Test
+    void failedRunIsReported() {
+        List<Ensemble.Run> runs = List.of(new Ensemble.Run(10, 10, 5, SEED), new Ensemble.Run(0, 10, 5, SEED));
+        try (Ensemble ensemble = new Ensemble(2)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> ensemble.run(runs, result -> { }));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    /**
+     * Runs consecutive seeds on the given number of threads, and checks that
+     * each result reaches the aggregator once and matches a lone Simulator.
+     */
+    private void checkRuns(int threads, int count) throws InterruptedException {
+        List<Ensemble.Run> runs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            runs.add(new Ensemble.Run(20, 30, 60, SEED + i));
+        }
+        Map<Long, Ensemble.Result> results = new HashMap<>();
+        try (Ensemble ensemble = new Ensemble(threads)) {
+            ensemble.run(runs, result -> {
+                Ensemble.Result earlier = results.put(result.getRun().getSeed(), result);
+                assertEquals(null, earlier, "Seed " + result.getRun().getSeed() + " was aggregated twice");
+            });
+        }
+        assertEquals(count, results.size());
+
+        for (Ensemble.Run run : runs) {
+            Ensemble.Result result = results.get(run.getSeed());
+            Simulator alone = lone(run.getRows(), run.getColumns(), run.getSeed(), run.getGenerations());
+            FieldStats stats = alone.getField().getStats();
+            assertEquals(alone.getGeneration(), result.getGeneration(), "Seed " + run.getSeed());
+            assertEquals(alone.getCyclePeriod(), result.getCyclePeriod(), "Seed " + run.getSeed());
+            for (CellType cellType : CellType.values()) {
+                assertEquals(stats.getPopulation(cellType), result.getPopulation(cellType),
+                        "Seed " + run.getSeed() + ", " + cellType);
+            }
+        }
+    }
+
+    /**
+     * Simulates a field on its own the way an ensemble run does.
+     */
+    private static Simulator lone(int rows, int columns, long seed, int generations) {
+        Simulator simulator = new Simulator(rows, columns, seed, new HeadlessView());
+        simulator.setStopOnCycle(true);
+        simulator.simulate(generations);
+        return simulator;
+    }
+}
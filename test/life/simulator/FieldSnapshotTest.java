@@ -0,0 +1,99 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import life.model.Cell;
+
+/**
+ * Checks that a field saved to a snapshot and loaded again carries on
+ * exactly as the field it was saved from.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class FieldSnapshotTest {
+    private static final long SEED = 1111;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadedFieldCarriesOnFromGenerationZero() throws IOException {
+        assertCarriesOn(Field.Edges.BOUNDED, 0);
+    }
+
+    @Test
+    void loadedFieldCarriesOnFromLaterGeneration() throws IOException {
+        assertCarriesOn(Field.Edges.BOUNDED, 37);
+    }
+
+    @Test
+    void loadedToroidalFieldCarriesOn() throws IOException {
+        assertCarriesOn(Field.Edges.TOROIDAL, 25);
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws IOException {
+        Path file = dir.resolve("field.snapshot");
+        FieldSnapshot.save(new Simulator(10, 12, SEED, new HeadlessView()).getField(), file);
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 100));
+        assertThrows(IOException.class, () -> FieldSnapshot.load(file));
+    }
+
+    /**
+     * Save a simulation after some generations, load it, and step the loaded
+     * field and the original side by side.
+     */
+    private void assertCarriesOn(Field.Edges edges, int savedGeneration) throws IOException {
+        Simulator original = new Simulator(50, 60, SEED, edges, new HeadlessView());
+        original.simulate(savedGeneration);
+        Path file = dir.resolve("field.snapshot");
+        FieldSnapshot.save(original.getField(), file);
+
+        Field field = FieldSnapshot.load(file);
+        assertEquals(savedGeneration, field.getGeneration());
+        assertEquals(edges, field.getEdges());
+        assertEquals(SEED, field.getSeed());
+        Simulator loaded = new Simulator(field, new HeadlessView());
+        assertSameField(original.getField(), loaded.getField());
+        for (int generation = 0; generation < 60; generation++) {
+            original.simOneGeneration();
+            loaded.simOneGeneration();
+            assertSameField(original.getField(), loaded.getField());
+        }
+        assertEquals(original.getCyclePeriod(), loaded.getCyclePeriod());
+    }
+
+    /**
+     * Compare the cells and the statistics of two fields.
+     */
+    static void assertSameField(Field expected, Field actual) {
+        assertEquals(expected.getGeneration(), actual.getGeneration());
+        for (int row = 0; row < expected.getDepth(); row++) {
+            for (int col = 0; col < expected.getWidth(); col++) {
+                Cell cell = expected.getObjectAt(row, col);
+                Cell other = actual.getObjectAt(row, col);
+                String at = "generation " + expected.getGeneration() + " at " + row + "," + col;
+                assertEquals(cell.getType(), other.getType(), at);
+                assertEquals(cell.isAlive(), other.isAlive(), at);
+                assertEquals(cell.getColor(), other.getColor(), at);
+                assertEquals(cell.getEnergyLeft(), other.getEnergyLeft(), at);
+                assertEquals(cell.hasPlague(), other.hasPlague(), at);
+            }
+        }
+        assertEquals(expected.getStateHash(), actual.getStateHash());
+        assertEquals(expected.getStats().getPopulationDetails(expected),
+                actual.getStats().getPopulationDetails(actual));
+        assertEquals(expected.getStats().getPlaguedTotal(), actual.getStats().getPlaguedTotal());
+    }
+}
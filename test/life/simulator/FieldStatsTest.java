@@ -0,0 +1,100 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.Cell;
+import life.model.CellType;
+
+/**
+ * Checks that the counts a FieldStats keeps as cells change always equal a
+ * count of the cells in the field.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class FieldStatsTest {
+    private static final long SEED = 1111;
+    private static final CellType[] TYPES = CellType.values();
+
+    @Test
+    void countsMatchTheFieldThroughEveryChange() {
+        Simulator simulator = new Simulator(20, 25, SEED, new HeadlessView());
+        Field field = simulator.getField();
+        assertCountsMatch(field, "populated");
+
+        for (int generation = 1; generation <= 10; generation++) {
+            simulator.simOneGeneration();
+            assertCountsMatch(field, "generation " + generation);
+        }
+
+        int killed = 0;
+        int infected = 0;
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Cell cell = field.getObjectAt(row, col);
+                if (cell == null || !cell.isAlive()) {
+                    continue;
+                }
+                if ((row + col) % 3 == 0) {
+                    cell.setDead();
+                    killed++;
+                } else if ((row + col) % 3 == 1) {
+                    cell.setPlagued(!cell.hasPlague());
+                    infected++;
+                }
+            }
+        }
+        assertTrue(killed > 0 && infected > 0);
+        assertCountsMatch(field, "after setDead and setPlagued");
+
+        field.clear();
+        assertCountsMatch(field, "cleared");
+        for (CellType cellType : TYPES) {
+            assertEquals(0, field.getStats().getCells(cellType), cellType + " cleared");
+        }
+
+        simulator.generateRandomSimulation();
+        assertCountsMatch(field, "re-populated");
+        for (int generation = 1; generation <= 5; generation++) {
+            simulator.simOneGeneration();
+            assertCountsMatch(field, "generation " + generation + " after re-populating");
+        }
+    }
+
+    /**
+     * Counts the cells of the field one by one and compares the counts with
+     * those of its statistics.
+     */
+    private static void assertCountsMatch(Field field, String step) {
+        int[] living = new int[TYPES.length];
+        int[] plagued = new int[TYPES.length];
+        int[] cells = new int[TYPES.length];
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Cell cell = field.getObjectAt(row, col);
+                if (cell == null) {
+                    continue;
+                }
+                int type = cell.getType().ordinal();
+                cells[type]++;
+                if (cell.isAlive()) {
+                    living[type]++;
+                }
+                if (cell.hasPlague()) {
+                    plagued[type]++;
+                }
+            }
+        }
+        FieldStats stats = field.getStats();
+        for (CellType cellType : TYPES) {
+            int type = cellType.ordinal();
+            assertEquals(living[type], stats.getPopulation(cellType), cellType + " living, " + step);
+            assertEquals(plagued[type], stats.getPlagued(cellType), cellType + " plagued, " + step);
+            assertEquals(cells[type], stats.getCells(cellType), cellType + " cells, " + step);
+        }
+    }
+}
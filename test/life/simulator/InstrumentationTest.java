@@ -0,0 +1,61 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.CellType;
+
+/**
+ * Checks that timing the generations of a Simulator does not change them,
+ * and that every cell's act is counted.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class InstrumentationTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void instrumentedGenerationsMatchPlainOnes() {
+        Simulator plain = new Simulator(40, 50, SEED, new HeadlessView());
+        Simulator instrumented = new Simulator(40, 50, SEED, new HeadlessView());
+        instrumented.setInstrumented(true);
+        for (int generation = 0; generation < 50; generation++) {
+            plain.simOneGeneration();
+            instrumented.simOneGeneration();
+        }
+        FieldSnapshotTest.assertSameField(plain.getField(), instrumented.getField());
+        assertEquals(plain.getCyclePeriod(), instrumented.getCyclePeriod());
+    }
+
+    @Test
+    void everyCellActsOnceAGeneration() {
+        Simulator simulator = new Simulator(30, 40, SEED, new HeadlessView());
+        simulator.setInstrumented(true);
+        for (int generation = 0; generation < 20; generation++) {
+            simulator.simOneGeneration();
+        }
+        Instrumentation timings = simulator.getInstrumentation();
+        assertEquals(20, timings.getGenerations());
+
+        Field field = simulator.getField();
+        int[] cells = new int[CellType.values().length];
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                cells[field.getObjectAt(row, col).getType().ordinal()]++;
+            }
+        }
+        long acts = 0;
+        for (CellType type : CellType.values()) {
+            assertEquals(20L * cells[type.ordinal()], timings.getActs(type), type.toString());
+            acts += timings.getActs(type);
+        }
+        assertEquals(20L * field.getDepth() * field.getWidth(), acts);
+        for (Instrumentation.Phase phase : Instrumentation.Phase.values()) {
+            assertTrue(timings.getTotalNanos(phase) >= timings.getLastNanos(phase), phase.toString());
+        }
+    }
+}
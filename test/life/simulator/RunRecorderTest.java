@@ -0,0 +1,134 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a run recorded by a RunRecorder reads back, generation by
+ * generation, exactly as it was simulated.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class RunRecorderTest {
+    private static final long SEED = 1111;
+    private static final int GENERATIONS = 80;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayMatchesLiveRun() throws IOException {
+        Path file = dir.resolve("run.rec");
+        List<byte[]> live = record(file, Field.Edges.BOUNDED, 10);
+        try (RunReader reader = new RunReader(file)) {
+            assertEquals(0, reader.getFirstGeneration());
+            assertEquals(GENERATIONS, reader.getLastGeneration());
+            Capture replayed = new Capture();
+            reader.replay(0, GENERATIONS, replayed);
+            for (int generation = 0; generation <= GENERATIONS; generation++) {
+                assertArrayEquals(live.get(generation), replayed.records.get(generation), "generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void seekingBackAndForthMatchesLiveRun() throws IOException {
+        Path file = dir.resolve("run.rec");
+        List<byte[]> live = record(file, Field.Edges.BOUNDED, 7);
+        try (RunReader reader = new RunReader(file)) {
+            for (int generation : new int[] { 55, 13, 14, 70, 6, 0, 80, 79 }) {
+                assertArrayEquals(live.get(generation), records(reader.seek(generation)), "generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void replayedFieldCarriesOnAsTheLiveRun() throws IOException {
+        Path file = dir.resolve("run.rec");
+        record(file, Field.Edges.BOUNDED, 10);
+        Simulator live = new Simulator(40, 50, SEED, new HeadlessView());
+        live.simulate(GENERATIONS);
+        try (RunReader reader = new RunReader(file)) {
+            Simulator replayed = new Simulator(reader.seek(45), new HeadlessView());
+            replayed.simulate(GENERATIONS - 45);
+            FieldSnapshotTest.assertSameField(live.getField(), replayed.getField());
+        }
+    }
+
+    @Test
+    void toroidalReplayCarriesOnAsTheLiveRun() throws IOException {
+        Path file = dir.resolve("run.rec");
+        List<byte[]> live = record(file, Field.Edges.TOROIDAL, 10);
+        Simulator simulator = new Simulator(40, 50, SEED, Field.Edges.TOROIDAL, new HeadlessView());
+        simulator.simulate(GENERATIONS);
+        try (RunReader reader = new RunReader(file)) {
+            assertEquals(Field.Edges.TOROIDAL, reader.getEdges());
+            assertArrayEquals(live.get(33), records(reader.seek(33)));
+            Simulator replayed = new Simulator(reader.seek(33), new HeadlessView());
+            replayed.simulate(GENERATIONS - 33);
+            FieldSnapshotTest.assertSameField(simulator.getField(), replayed.getField());
+        }
+    }
+
+    @Test
+    void fieldTooLargeToRecordIsRejected() throws IOException {
+        // A one-row window of a field with more squares than can be recorded.
+        Field field = new Field(20_000, 20_000, SEED, 0, 1);
+        try (RunRecorder recorder = new RunRecorder(dir.resolve("run.rec"), new HeadlessView())) {
+            assertThrows(IllegalArgumentException.class, () -> recorder.showStatus(0, field));
+        }
+    }
+
+    /**
+     * Simulate a run while recording it, and return the records of every
+     * generation as they were simulated.
+     */
+    List<byte[]> record(Path file, Field.Edges edges, int keyframeInterval) throws IOException {
+        Capture live = new Capture();
+        try (RunRecorder recorder = new RunRecorder(file, keyframeInterval, live)) {
+            Simulator simulator = new Simulator(40, 50, SEED, edges, recorder);
+            simulator.simulate(GENERATIONS);
+        }
+        return live.records;
+    }
+
+    /**
+     * Return the snapshot records of every location of a field.
+     */
+    static byte[] records(Field field) {
+        ByteBuffer buffer = ByteBuffer.allocate(field.getDepth() * field.getWidth() * FieldSnapshot.RECORD_SIZE);
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                FieldSnapshot.putRecord(buffer, field.getObjectAt(row, col));
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * A view that keeps the records of every generation shown to it.
+     */
+    private static class Capture implements SimulationView {
+        final List<byte[]> records = new ArrayList<>();
+
+        public void showStatus(int generation, Field field) {
+            records.add(records(field));
+        }
+
+        public boolean isViable(Field field) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the operations of a SimulatorMXBean act on whichever
+ * generation loop is running, including a call to simulate on another
+ * thread.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class SimulatorManagementTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void stepIsRefusedWhileSimulating() throws InterruptedException {
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Simulator simulator = new Simulator(30, 40, SEED, new AlwaysViableView() {
+            public void showStatus(int generation, Field field) {
+                if (generation == 5) {
+                    reached.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        SimulatorManagement bean = new SimulatorManagement(simulator);
+        AtomicInteger simulated = new AtomicInteger(-1);
+        Thread runner = new Thread(() -> simulated.set(simulator.simulate(10)));
+        runner.start();
+        try {
+            assertTrue(reached.await(10, TimeUnit.SECONDS));
+            assertTrue(bean.isRunning());
+            assertThrows(IllegalStateException.class, () -> bean.step(1));
+            assertThrows(IllegalStateException.class, simulator::simOneGeneration);
+            assertThrows(IllegalStateException.class, simulator::generateRandomSimulation);
+            assertThrows(IllegalStateException.class, simulator::startSimulation);
+            // Starting an already running simulation does nothing.
+            bean.start();
+        } finally {
+            release.countDown();
+            runner.join(10_000);
+        }
+        assertEquals(10, simulated.get());
+        assertEquals(10, simulator.getGeneration());
+        assertFalse(bean.isRunning());
+        assertEquals(3, bean.step(3));
+        assertEquals(13, simulator.getGeneration());
+    }
+
+    @Test
+    void standaloneStepHoldsTheLoop() throws InterruptedException {
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Simulator simulator = new Simulator(30, 40, SEED, new AlwaysViableView() {
+            public void showStatus(int generation, Field field) {
+                if (generation == 1) {
+                    reached.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        SimulatorManagement bean = new SimulatorManagement(simulator);
+        Thread stepper = new Thread(simulator::simOneGeneration);
+        stepper.start();
+        try {
+            assertTrue(reached.await(10, TimeUnit.SECONDS));
+            assertThrows(IllegalStateException.class, simulator::startSimulation);
+            assertThrows(IllegalStateException.class, simulator::generateRandomSimulation);
+            assertThrows(IllegalStateException.class, () -> bean.step(1));
+        } finally {
+            release.countDown();
+            stepper.join(10_000);
+        }
+        assertFalse(bean.isRunning());
+        assertEquals(1, simulator.getGeneration());
+        simulator.generateRandomSimulation();
+        assertEquals(0, simulator.getGeneration());
+    }
+
+    @Test
+    void stopEndsSimulate() throws InterruptedException {
+        Simulator simulator = new Simulator(30, 40, SEED, new AlwaysViableView());
+        SimulatorManagement bean = new SimulatorManagement(simulator);
+        AtomicInteger simulated = new AtomicInteger(-1);
+        Thread runner = new Thread(() -> simulated.set(simulator.simulate(Integer.MAX_VALUE)));
+        runner.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (simulator.getGeneration() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        bean.stop();
+        // The stop waits for the loop to finish.
+        assertFalse(bean.isRunning());
+        runner.join(10_000);
+        assertFalse(runner.isAlive());
+        assertTrue(simulated.get() >= 5);
+        assertEquals(simulator.getGeneration(), simulated.get());
+    }
+
+    @Test
+    void delayPacesSimulate() {
+        Simulator simulator = new Simulator(10, 10, SEED, new HeadlessView());
+        SimulatorManagement bean = new SimulatorManagement(simulator);
+        assertEquals(0, bean.getDelay());
+        bean.setDelay(20);
+        long start = System.nanoTime();
+        int simulated = simulator.simulate(5);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Each generation after the first starts 20 ms after the one before.
+        assertTrue(millis >= 18L * (simulated - 1), millis + " ms for " + simulated + " generations");
+    }
+}
@@ -0,0 +1,56 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.model.CellType;
+
+/**
+ * Checks how a Simulator finds that its field has started to repeat.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class SimulatorTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void generationZeroIsNotComparedWithLaterGenerations() {
+        // Every cell of the field is dead and stays so, but in generation 0
+        // the cells have not chosen a next state, so the first generation
+        // can only be compared with the ones after it.
+        Simulator simulator = new Simulator(deadField(0), new HeadlessView());
+        simulator.simOneGeneration();
+        assertEquals(0, simulator.getCyclePeriod());
+        simulator.simOneGeneration();
+        assertEquals(1, simulator.getCyclePeriod());
+    }
+
+    @Test
+    void laterGenerationsAreComparedWithTheFirstOneLoaded() {
+        // A field carried on from a later generation has chosen its states.
+        Simulator simulator = new Simulator(deadField(5), new HeadlessView());
+        simulator.simOneGeneration();
+        assertEquals(1, simulator.getCyclePeriod());
+    }
+
+    /**
+     * Create a field of dead Photobacteria, which stay dead without drawing
+     * any random number, in the given generation.
+     */
+    private static Field deadField(int generation) {
+        Field field = new Field(6, 7, SEED);
+        field.setGeneration(generation);
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Cell cell = CellFactory.createCell(CellType.PHOTOBACTERIUM, field, new Location(row, col));
+                cell.setDead();
+            }
+        }
+        return field;
+    }
+}
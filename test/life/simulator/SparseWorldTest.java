@@ -0,0 +1,96 @@
+package life.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.model.CellType;
+
+/**
+ * Checks that a SparseWorld behaves exactly as a Field of the same size and
+ * contents.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class SparseWorldTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void colonyInTheMiddleMatchesField() {
+        assertMatchesField(100, 130, 30, 50, 40, 150);
+    }
+
+    @Test
+    void colonyInTheCornerMatchesField() {
+        assertMatchesField(70, 90, 0, 0, 33, 150);
+    }
+
+    @Test
+    void colonyAtTheFarEdgesMatchesField() {
+        assertMatchesField(75, 101, 45, 70, 30, 150);
+    }
+
+    /**
+     * Seed a colony into a SparseWorld, copy the world into a Field, then
+     * step both and compare every square and the population each generation.
+     */
+    private void assertMatchesField(int depth, int width, int top, int left, int size, int generations) {
+        SparseWorld world = new SparseWorld(depth, width, SEED);
+        world.seed(top, left, size, size, new CellFactory(new Random(SEED)));
+
+        Field field = new Field(depth, width, SEED);
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                Cell cell = CellFactory.createCell(world.getType(row, col), field, new Location(row, col));
+                if (!world.isAlive(row, col)) {
+                    cell.setDead();
+                }
+                cell.setEnergyLeft(world.getEnergyLeft(row, col));
+                cell.setColor(world.getColour(row, col));
+                cell.setPlagued(world.hasPlague(row, col));
+            }
+        }
+        // Single steps do not ask the view whether to carry on.
+        Simulator simulator = new Simulator(field, new HeadlessView());
+
+        for (int generation = 1; generation <= generations; generation++) {
+            simulator.simOneGeneration();
+            world.step();
+            assertEquals(generation, world.getGeneration());
+            assertSameSquares(field, world, generation);
+            for (CellType type : CellType.values()) {
+                assertEquals(field.getStats().getPopulation(type), world.getStats().getPopulation(type),
+                        type + " in generation " + generation);
+            }
+        }
+    }
+
+    /**
+     * Compare every square. A dead Wolbachia whose energy is zero or below
+     * matches any such energy, as SparseWorld describes.
+     */
+    private static void assertSameSquares(Field field, SparseWorld world, int generation) {
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Cell cell = field.getObjectAt(row, col);
+                String at = row + "," + col + " in generation " + generation;
+                assertEquals(cell.getType(), world.getType(row, col), at);
+                assertEquals(cell.isAlive(), world.isAlive(row, col), at);
+                assertEquals(cell.getColor(), world.getColour(row, col), at);
+                assertEquals(cell.hasPlague(), world.hasPlague(row, col), at);
+                if (cell.getType() == CellType.WOLBACHIA && !cell.isAlive() && cell.getEnergyLeft() <= 0) {
+                    assertTrue(world.getEnergyLeft(row, col) <= 0, at);
+                } else {
+                    assertEquals(cell.getEnergyLeft(), world.getEnergyLeft(row, col), at);
+                }
+            }
+        }
+    }
+}
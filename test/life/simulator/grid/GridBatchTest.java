@@ -0,0 +1,86 @@
+package life.simulator.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.CellFactory;
+import life.model.CellType;
+
+/**
+ * Checks that every field of a GridBatch steps square for square like a
+ * GridField of its own with the same seed.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class GridBatchTest {
+    private static final long[] SEEDS = { 1111, 42, 7, 123456789, -5 };
+
+    @Test
+    void fieldsMatchSeparateFields() {
+        assertMatchesSeparateFields(30, 40, GridField.NeighbourCounting.INCREMENTAL, 120);
+    }
+
+    @Test
+    void fieldsMatchSeparateFieldsCountingBitboards() {
+        assertMatchesSeparateFields(30, 40, GridField.NeighbourCounting.BITBOARD, 120);
+    }
+
+    @Test
+    void fieldsSmallerThanATileMatchSeparateFields() {
+        // Fields that end inside a tile and inside a word of the bitsets.
+        for (GridField.NeighbourCounting counting : GridField.NeighbourCounting.values()) {
+            assertMatchesSeparateFields(5, 13, counting, 60);
+        }
+    }
+
+    /**
+     * Step a batch and a separate GridField for each of its seeds, comparing
+     * every square and the population of each field every generation.
+     */
+    private void assertMatchesSeparateFields(int depth, int width, GridField.NeighbourCounting counting,
+            int generations) {
+        GridBatch batch = new GridBatch(depth, width, SEEDS, counting);
+        batch.populate();
+        GridField[] fields = new GridField[SEEDS.length];
+        for (int i = 0; i < SEEDS.length; i++) {
+            fields[i] = new GridField(depth, width, SEEDS[i], false, counting);
+            fields[i].populate(new CellFactory(new Random(SEEDS[i])));
+        }
+        for (int generation = 0; generation <= generations; generation++) {
+            assertEquals(generation, batch.getGeneration());
+            for (int i = 0; i < SEEDS.length; i++) {
+                assertSameField(fields[i], batch, i, generation);
+            }
+            batch.step();
+            for (GridField field : fields) {
+                field.step();
+            }
+        }
+    }
+
+    private static void assertSameField(GridField expected, GridBatch batch, int field, int generation) {
+        int[] living = new int[CellType.values().length];
+        for (int row = 0; row < expected.getDepth(); row++) {
+            for (int col = 0; col < expected.getWidth(); col++) {
+                String at = "field " + field + " at " + row + "," + col + " in generation " + generation;
+                assertEquals(expected.getType(row, col), batch.getType(field, row, col), at);
+                assertEquals(expected.isAlive(row, col), batch.isAlive(field, row, col), at);
+                assertEquals(expected.getColour(row, col), batch.getColour(field, row, col), at);
+                assertEquals(expected.getEnergyLeft(row, col), batch.getEnergyLeft(field, row, col), at);
+                assertEquals(expected.hasPlague(row, col), batch.hasPlague(field, row, col), at);
+                if (expected.isAlive(row, col)) {
+                    living[expected.getType(row, col).ordinal()]++;
+                }
+            }
+        }
+        for (CellType type : CellType.values()) {
+            assertEquals(living[type.ordinal()], batch.getPopulation(field, type),
+                    type + " in field " + field + " in generation " + generation);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package life.simulator.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import life.model.Cell;
+import life.model.CellFactory;
+import life.simulator.Field;
+import life.simulator.HeadlessView;
+import life.simulator.Location;
+import life.simulator.Simulator;
+
+/**
+ * Checks that a GridField steps square for square like a Field of Cell
+ * objects with the same seed, populated from an equal factory, however its
+ * tiles sleep and its neighbours are counted.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class GridFieldTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void matchesField() {
+        assertMatchesField(60, 70, 0.15, 150);
+    }
+
+    @Test
+    void matchesSparseFieldWithSleepingTiles() {
+        assertMatchesField(100, 130, 0.02, 200);
+    }
+
+    @Test
+    void matchesDenseField() {
+        assertMatchesField(40, 64, 0.6, 100);
+    }
+
+    @Test
+    void parallelStepsMatchSequentialSteps() {
+        for (int threads : new int[] { 1, 2, 4 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // 100 columns keep bands off each other's words only every
+                // 16 rows, and 600 rows are expensive enough to be split.
+                GridField sequential = new GridField(600, 100, SEED, true);
+                GridField parallel = new GridField(600, 100, SEED, true);
+                sequential.populate(new CellFactory(new Random(SEED)));
+                parallel.populate(new CellFactory(new Random(SEED)));
+                for (int generation = 0; generation < 40; generation++) {
+                    sequential.step();
+                    parallel.stepParallel(pool);
+                }
+                assertSameSquares(sequential, parallel);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void bitboardCountsMatchIncrementalCounts() {
+        // Widths that end inside a word and inside a tile, as well as on one.
+        for (int width : new int[] { 64, 100, 150 }) {
+            GridField incremental = new GridField(90, width, SEED);
+            GridField bitboard = new GridField(90, width, SEED, false, GridField.NeighbourCounting.BITBOARD);
+            incremental.populate(new CellFactory(new Random(SEED)));
+            bitboard.populate(new CellFactory(new Random(SEED)));
+            for (int generation = 0; generation < 120; generation++) {
+                incremental.step();
+                bitboard.step();
+                assertSameSquares(incremental, bitboard);
+            }
+        }
+    }
+
+    @Test
+    void parallelBitboardStepsMatchSequentialSteps() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            GridField sequential = new GridField(600, 100, SEED, true);
+            GridField parallel = new GridField(600, 100, SEED, true, GridField.NeighbourCounting.BITBOARD);
+            sequential.populate(new CellFactory(new Random(SEED)));
+            parallel.populate(new CellFactory(new Random(SEED)));
+            for (int generation = 0; generation < 40; generation++) {
+                sequential.step();
+                parallel.stepParallel(pool);
+            }
+            assertSameSquares(sequential, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void offHeapStorageMatchesHeapStorage() {
+        for (GridField.NeighbourCounting counting : GridField.NeighbourCounting.values()) {
+            GridField heap = new GridField(70, 100, SEED, true, counting, GridField.Storage.HEAP);
+            GridField offHeap = new GridField(70, 100, SEED, true, counting, GridField.Storage.OFF_HEAP);
+            heap.populate(new CellFactory(new Random(SEED)));
+            offHeap.populate(new CellFactory(new Random(SEED)));
+            for (int generation = 0; generation < 80; generation++) {
+                heap.step();
+                offHeap.step();
+                assertSameSquares(heap, offHeap);
+            }
+        }
+    }
+
+    /**
+     * Step a Simulator and a GridField side by side and compare every square
+     * after every generation.
+     */
+    private static void assertMatchesField(int depth, int width, double density, int generations) {
+        Field field = new Field(depth, width, SEED);
+        CellFactory cellFactory = new CellFactory(new Random(SEED), density);
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                Cell cell = cellFactory.createCell(field, new Location(row, col));
+                if (!cellFactory.isAlive()) {
+                    cell.setDead();
+                }
+            }
+        }
+        Simulator simulator = new Simulator(field, new HeadlessView());
+        GridField grid = new GridField(depth, width, SEED);
+        grid.populate(new CellFactory(new Random(SEED), density));
+
+        assertSameSquares(field, grid);
+        for (int generation = 1; generation <= generations; generation++) {
+            simulator.simOneGeneration();
+            grid.step();
+            assertEquals(generation, grid.getGeneration());
+            assertSameSquares(field, grid);
+        }
+    }
+
+    /**
+     * Compare every square of one GridField with the same square of another.
+     */
+    static void assertSameSquares(GridField expected, GridField actual) {
+        for (int row = 0; row < expected.getDepth(); row++) {
+            for (int col = 0; col < expected.getWidth(); col++) {
+                String at = "generation " + actual.getGeneration() + " at " + row + "," + col;
+                assertEquals(expected.getType(row, col), actual.getType(row, col), at);
+                assertEquals(expected.isAlive(row, col), actual.isAlive(row, col), at);
+                assertEquals(expected.getColour(row, col), actual.getColour(row, col), at);
+                assertEquals(expected.getEnergyLeft(row, col), actual.getEnergyLeft(row, col), at);
+                assertEquals(expected.hasPlague(row, col), actual.hasPlague(row, col), at);
+            }
+        }
+    }
+
+    /**
+     * Compare every square of a Field with the same square of a GridField.
+     */
+    static void assertSameSquares(Field field, GridField grid) {
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Cell cell = field.getObjectAt(row, col);
+                String at = "generation " + grid.getGeneration() + " at " + row + "," + col;
+                assertEquals(cell.getType(), grid.getType(row, col), at);
+                assertEquals(cell.isAlive(), grid.isAlive(row, col), at);
+                assertEquals(cell.getColor(), grid.getColour(row, col), at);
+                assertEquals(cell.getEnergyLeft(), grid.getEnergyLeft(row, col), at);
+                assertEquals(cell.hasPlague(), grid.hasPlague(row, col), at);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package life.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the draws of a CounterRandom depend only on the seed, position,
+ * stream and draw index, and not on what was drawn before.
+ *
+ * @author Ahmet Kucuk, Kota Amemiya & Mohammed Fohpa
+ * @version 2023.02.16 (2)
+ */
+
+class CounterRandomTest {
+    private static final long SEED = 1111;
+
+    @Test
+    void drawsMatchHash() {
+        CounterRandom rand = new CounterRandom(SEED).position(7, 3, 4, 2);
+        for (int draw = 0; draw < 10; draw++) {
+            long bits = CounterRandom.hash(SEED, 7, 3, 4, 2, draw);
+            if (draw % 2 == 0) {
+                assertEquals(CounterRandom.toDouble(bits), rand.nextDouble());
+            } else {
+                assertEquals(CounterRandom.toInt(bits, 8), rand.nextInt(8));
+            }
+        }
+    }
+
+    @Test
+    void streamsDoNotDependOnOtherDraws() {
+        CounterRandom quiet = new CounterRandom(SEED);
+        CounterRandom busy = new CounterRandom(SEED);
+        for (int stream = 0; stream < 4; stream++) {
+            // Drawing from other positions and streams in between changes
+            // nothing.
+            busy.position(7, 9, 9, stream).nextLong();
+            busy.position(8, 3, 4, stream + 1).nextDouble();
+            quiet.position(7, 3, 4, stream);
+            busy.position(7, 3, 4, stream);
+            for (int draw = 0; draw < 5; draw++) {
+                assertEquals(quiet.nextLong(), busy.nextLong());
+            }
+        }
+    }
+
+    @Test
+    void repositioningRestartsStream() {
+        CounterRandom rand = new CounterRandom(SEED).position(1, 2, 3, 1);
+        long first = rand.nextLong();
+        rand.nextLong();
+        assertEquals(first, rand.position(1, 2, 3, 1).nextLong());
+    }
+
+    @Test
+    void positionsAndStreamsAreDistinct() {
+        Set<Long> firstDraws = new HashSet<>();
+        int positions = 0;
+        for (int generation = 0; generation < 4; generation++) {
+            for (int row = 0; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    for (int stream = 0; stream < 5; stream++) {
+                        firstDraws.add(CounterRandom.hash(SEED, generation, row, col, stream, 0));
+                        positions++;
+                    }
+                }
+            }
+        }
+        assertEquals(positions, firstDraws.size());
+        assertNotEquals(CounterRandom.hash(SEED, 0, 0, 0, 0, 0), CounterRandom.hash(SEED + 1, 0, 0, 0, 0, 0));
+    }
+
+    @Test
+    void streamsAreUncorrelated() {
+        // Neighbouring streams of neighbouring squares should agree on the
+        // top bit about half of the time.
+        int agreements = 0;
+        int draws = 20000;
+        for (int i = 0; i < draws; i++) {
+            long a = CounterRandom.hash(SEED, i, i % 100, i / 100, 1, 0);
+            long b = CounterRandom.hash(SEED, i, i % 100, i / 100, 2, 0);
+            agreements += (a < 0) == (b < 0) ? 1 : 0;
+        }
+        assertEquals(0.5, (double) agreements / draws, 0.02);
+    }
+}